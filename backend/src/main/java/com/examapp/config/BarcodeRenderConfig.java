@@ -0,0 +1,50 @@
+package com.examapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BarcodeRenderConfig - Shared worker pool for CPU-bound barcode rendering
+ *
+ * Sized to the available cores (barcode.render.threads=0) with a bounded queue.
+ * When the queue is full the submitting thread renders the barcode itself,
+ * which naturally slows producers down instead of piling up work.
+ */
+@Configuration
+public class BarcodeRenderConfig {
+
+    @Value("${barcode.render.threads:0}")
+    private int threads;
+
+    @Value("${barcode.render.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(name = "barcodeRenderExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor barcodeRenderExecutor() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "barcode-render-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        System.out.println("✅ Barcode render pool: " + poolSize + " threads, queue " + queueCapacity);
+        return executor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.examapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ExamEventConfig - Small pool that delivers live exam events to subscribers
+ *
+ * Each subscriber has at most one delivery task queued at a time, so the
+ * pool's queue stays bounded by the number of open streams. The same pool
+ * runs the periodic heartbeat.
+ */
+@Configuration
+public class ExamEventConfig {
+
+    @Value("${exam.events.threads:4}")
+    private int threads;
+
+    @Bean(name = "examEventExecutor", destroyMethod = "shutdownNow")
+    public ScheduledThreadPoolExecutor examEventExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "exam-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        System.out.println("✅ Exam event pool: " + threads + " threads");
+        return executor;
+    }
+}
@@ -0,0 +1,49 @@
+package com.examapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NotificationConfig - Background pool for sending notification emails
+ *
+ * Workers for NotificationOutbox: keeps SMTP round trips off request threads.
+ * The outbox never has more than notification.outbox.max-in-flight emails
+ * on the pool; if the queue is ever full the submitting thread sends the
+ * email itself rather than dropping it.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Value("${notification.threads:2}")
+    private int threads;
+
+    @Value("${notification.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Bean(name = "notificationExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor notificationExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "notification-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        System.out.println("✅ Notification pool: " + threads + " threads, queue " + queueCapacity);
+        return executor;
+    }
+}
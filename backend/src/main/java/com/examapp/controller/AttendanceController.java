@@ -1,16 +1,26 @@
 package com.examapp.controller;
 
+import com.examapp.dto.AttendanceBatchEntry;
 import com.examapp.dto.AttendanceRequest;
 import com.examapp.dto.AttendanceSummary;
 import com.examapp.model.Attendance;
+import com.examapp.service.AttendanceCounters;
 import com.examapp.service.AttendanceService;
+import com.examapp.service.ExamEventBroadcaster;
 import com.examapp.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * AttendanceController - REST API endpoints for attendance management.
@@ -24,9 +34,17 @@ public class AttendanceController {
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private AttendanceCounters attendanceCounters;
+
+    @Autowired
+    private ExamEventBroadcaster eventBroadcaster;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    private static final int MAX_BATCH_RECORDS = 500;
+
     /**
      * Mark student attendance
      * POST /api/attendance
@@ -50,6 +68,101 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Upload many attendance records at once (offline sync)
+     * POST /api/attendance/batch
+     * Header: Authorization: Bearer <token>
+     * Body: {"records": [{"examId": 1, "studentId": 3, "status": "PRESENT",
+     *                     "method": "MANUAL", "clientTimestamp": 1700000000000}, ...]}
+     *
+     * Returns one outcome per record (RECORDED, DUPLICATE, EXAM_NOT_FOUND,
+     * STUDENT_NOT_FOUND, INVALID_STATUS) in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> markAttendanceBatch(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, List<AttendanceBatchEntry>> request) {
+        try {
+            List<AttendanceBatchEntry> records = request.get("records");
+            if (records == null || records.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "records list is required"));
+            }
+            if (records.size() > MAX_BATCH_RECORDS) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "A batch can contain at most " + MAX_BATCH_RECORDS + " records"));
+            }
+
+            String username = extractUsername(authHeader);
+            List<AttendanceService.BatchRecordResult> results =
+                    attendanceService.markAttendanceBatch(records, username);
+
+            long recorded = results.stream().filter(r -> "RECORDED".equals(r.getOutcome())).count();
+            Map<String, Object> response = new HashMap<>();
+            response.put("total", results.size());
+            response.put("recorded", recorded);
+            response.put("rejected", results.size() - recorded);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to record attendance batch");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Scan a student ID card and mark attendance in one round trip
+     * POST /api/attendance/scan
+     * Header: Authorization: Bearer <token>
+     * Body: {"scannedBarcode": "BCS25165336", "examId": 1, "status": "PRESENT"}
+     *
+     * 201 with the attendance record, 409 if already marked,
+     * 400 if the status is not PRESENT/ABSENT/LATE,
+     * 403 if the barcode fails validation (not found, not enrolled, rate limited)
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<?> scanAndMarkAttendance(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody Map<String, Object> request) {
+        try {
+            String username = extractUsername(authHeader);
+            String scannedBarcode = (String) request.get("scannedBarcode");
+            Long examId = Long.valueOf(request.get("examId").toString());
+            String status = (String) request.get("status");
+
+            AttendanceService.ScanAttendanceResult result =
+                    attendanceService.scanAndMarkAttendance(scannedBarcode, examId, status, username);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("recorded", result.isRecorded());
+            response.put("validationStatus", result.getValidationStatus());
+            response.put("scannedBarcode", result.getScannedBarcode());
+            response.put("timestamp", result.getTimestamp());
+
+            if (result.isRecorded()) {
+                response.put("student", result.getStudent());
+                response.put("attendance", result.getAttendance());
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }
+
+            response.put("errorMessage", result.getErrorMessage());
+            HttpStatus httpStatus;
+            if ("DUPLICATE".equals(result.getValidationStatus())) {
+                httpStatus = HttpStatus.CONFLICT;
+            } else if ("INVALID_STATUS".equals(result.getValidationStatus())) {
+                httpStatus = HttpStatus.BAD_REQUEST;
+            } else {
+                httpStatus = HttpStatus.FORBIDDEN;
+            }
+            return ResponseEntity.status(httpStatus).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Error scanning attendance: " + e.getMessage());
+        }
+    }
+
     /**
      * Get all attendance records for an exam
      * GET /api/attendance/exam/1
@@ -82,6 +195,64 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Live event stream for an exam (Server-Sent Events) - replaces polling
+     * GET /api/attendance/exam/1/events
+     *
+     * Starts with a "summary" event, then pushes compact deltas:
+     * attendance-marked, status-changed, incident-reported, scan
+     */
+    @GetMapping("/exam/{examId}/events")
+    public ResponseEntity<ResponseBodyEmitter> streamExamEvents(@PathVariable Long examId) {
+        try {
+            return ResponseEntity.ok(eventBroadcaster.subscribe(examId,
+                    () -> attendanceService.getAttendanceSnapshot(examId)));
+        } catch (IllegalStateException e) {
+            return eventStreamError(HttpStatus.SERVICE_UNAVAILABLE, "Cannot open event stream", e.getMessage());
+        } catch (RuntimeException e) {
+            return eventStreamError(HttpStatus.NOT_FOUND, "Exam not found", e.getMessage());
+        }
+    }
+
+    /**
+     * JSON error for the event stream endpoint (its declared body type is an emitter)
+     */
+    private ResponseEntity<ResponseBodyEmitter> eventStreamError(HttpStatus status, String error, String message) {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        try {
+            emitter.send(body, MediaType.APPLICATION_JSON);
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(emitter);
+    }
+
+    /**
+     * Get attendance summaries for several exams in one call (dashboard)
+     * GET /api/attendance/summary                   (today's exams)
+     * GET /api/attendance/summary?date=2025-06-12   (all exams on a date)
+     * GET /api/attendance/summary?examIds=1,2,3     (specific exams)
+     * Header: Authorization: Bearer <token>
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> getAttendanceSummaries(
+            @RequestParam(required = false) List<Long> examIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            List<AttendanceSummary> summaries = examIds != null
+                    ? attendanceService.getAttendanceSummaries(examIds)
+                    : attendanceService.getAttendanceSummariesForDate(date != null ? date : LocalDate.now());
+            return ResponseEntity.ok(summaries);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error generating summaries: " + e.getMessage());
+        }
+    }
+
     /**
      * Update attendance status (if marking was incorrect)
      * PUT /api/attendance/5
@@ -121,6 +292,17 @@ public class AttendanceController {
         }
     }
 
+    /**
+     * Live attendance counter statistics (for monitoring)
+     * GET /api/attendance/counters/stats
+     */
+    @GetMapping("/counters/stats")
+    public ResponseEntity<?> getCounterStats() {
+        Map<String, Object> stats = new HashMap<>(attendanceCounters.getMetrics());
+        stats.put("eventStream", eventBroadcaster.getMetrics());
+        return ResponseEntity.ok(stats);
+    }
+
     /**
      * Helper method to extract username from JWT token
      */
@@ -1,21 +1,48 @@
 package com.examapp.controller;
 
+import com.examapp.dto.BarcodeExportRequest;
+import com.examapp.dto.BarcodeScanEntry;
+import com.examapp.dto.IdCardSheetRequest;
 import com.examapp.dto.StudentIdCardDTO;
 import com.examapp.model.Student;
 import com.examapp.repository.StudentRepository;
+import com.examapp.service.BarcodeExportService;
+import com.examapp.service.BarcodeImageCache;
+import com.examapp.service.BarcodePackStore;
 import com.examapp.service.BarcodeService;
+import com.examapp.service.BulkBarcodeGenerator;
+import com.examapp.service.IdCardSheetService;
+import com.examapp.service.ScanAuditWriter;
+import com.examapp.service.StudentBatchResolver;
+import com.examapp.service.StudentLookupCache;
+import com.examapp.service.StudentSearchIndex;
+import com.examapp.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-
-import java.nio.file.Files;
-import java.nio.file.Path;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +60,56 @@ public class BarcodeController {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private ScanAuditWriter scanAuditWriter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private StudentLookupCache studentLookupCache;
+
+    @Autowired
+    private StudentBatchResolver studentBatchResolver;
+
+    @Autowired
+    private StudentSearchIndex studentSearchIndex;
+
+    @Autowired
+    private BarcodeImageCache barcodeImageCache;
+
+    @Autowired
+    private BulkBarcodeGenerator bulkBarcodeGenerator;
+
+    @Autowired
+    private BarcodePackStore barcodePackStore;
+
+    @Autowired
+    private BarcodeExportService barcodeExportService;
+
+    @Autowired
+    private IdCardSheetService idCardSheetService;
+
+    @Autowired
+    @Qualifier("barcodeRenderExecutor")
+    private ThreadPoolExecutor renderExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int MAX_BATCH_SCANS = 500;
+    private static final int ID_CARD_STREAM_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
+    private static final CacheControl IMMUTABLE_IMAGE = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePublic()
+            .immutable();
+
+    // Tomcat sendfile request attributes (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     /**
      * Generate barcode for a specific student
      * GET /api/barcode/generate/{studentId}
@@ -44,7 +121,7 @@ public class BarcodeController {
     public ResponseEntity<?> generateBarcode(@PathVariable String studentId) {
         try {
             // Check if student exists
-            Student student = studentRepository.findByStudentId(studentId)
+            Student student = studentLookupCache.findByStudentId(studentId)
                     .orElseThrow(() -> new RuntimeException("Student not found: " + studentId));
 
             // Generate barcode
@@ -72,31 +149,60 @@ public class BarcodeController {
      * Get existing barcode for a student
      * GET /api/barcode/{studentId}
      *
+     * A student's barcode never changes, so responses carry a content-derived ETag and
+     * "Cache-Control: public, max-age=31536000, immutable". A request with a matching
+     * If-None-Match gets 304 Not Modified without any image bytes.
+     *
+     * A stored barcode is sent with Tomcat's sendfile: the connector transfers
+     * its byte range of the pack file straight to the socket (FileChannel.transferTo),
+     * without passing through the JVM heap.
+     *
      * @param studentId The student ID
      * @return PNG barcode image or 404 if not found
      */
     @GetMapping("/{studentId}")
-    public ResponseEntity<?> getBarcode(@PathVariable String studentId) {
+    public ResponseEntity<?> getBarcode(@PathVariable String studentId, ServletWebRequest webRequest,
+                                        HttpServletRequest request, HttpServletResponse response) {
         try {
-            Path barcodePath = barcodeService.getBarcodeFile(studentId);
+            BarcodePackStore.Location stored = barcodeService.getBarcodeLocation(studentId);
 
-            if (barcodePath == null) {
-                // Barcode doesn't exist, generate it
+            if (stored == null) {
+                // Barcode doesn't exist, generate it (304 handled by Spring from the ETag)
                 byte[] barcodeBytes = barcodeService.generateBarcodeBytes(studentId);
 
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.IMAGE_PNG);
-                return ResponseEntity.ok().headers(headers).body(barcodeBytes);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .cacheControl(IMMUTABLE_IMAGE)
+                        .eTag(BarcodePackStore.contentTag(ByteBuffer.wrap(barcodeBytes)))
+                        .body(barcodeBytes);
             }
 
-            // Return existing barcode
-            byte[] barcodeBytes = Files.readAllBytes(barcodePath);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_PNG);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_IMAGE.getHeaderValue());
+            if (webRequest.checkNotModified(barcodeService.getBarcodeETag(studentId))) {
+                return null; // 304 - client already has these exact bytes
+            }
 
-            return ResponseEntity.ok().headers(headers).body(barcodeBytes);
+            response.setContentType(MediaType.IMAGE_PNG_VALUE);
+            response.setContentLength(stored.getLength());
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat sends the byte range from the file after this method returns
+                request.setAttribute(SENDFILE_FILENAME, stored.getPath().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, stored.getOffset());
+                request.setAttribute(SENDFILE_END, stored.getOffset() + stored.getLength());
+                return null;
+            }
+
+            // No sendfile (e.g., disabled on the connector): copy from the memory-mapped pack
+            ByteBuffer data = barcodeService.getBarcodeFile(studentId);
+            Channels.newChannel(response.getOutputStream()).write(data);
+            return null;
 
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Part of the image is already on the wire - no error body can follow it
+                System.err.println("❌ Failed to send barcode " + studentId + ": " + e.getMessage());
+                return null;
+            }
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to retrieve barcode");
             error.put("message", e.getMessage());
@@ -105,26 +211,29 @@ public class BarcodeController {
     }
 
     /**
-     * Generate barcodes for all students
+     * Generate barcodes for all students (rendered in parallel)
      * POST /api/barcode/generate-all
+     * POST /api/barcode/generate-all?async=true - returns 202 with a jobId to poll
      *
-     * @return Summary of generation results
+     * @return Summary of generation results (or the queued job)
      */
     @PostMapping("/generate-all")
-    public ResponseEntity<?> generateAllBarcodes() {
+    public ResponseEntity<?> generateAllBarcodes(@RequestParam(defaultValue = "false") boolean async) {
         try {
-            List<Student> students = studentRepository.findAll();
-            String[] studentIds = students.stream()
+            List<String> studentIds = studentRepository.findAll().stream()
                     .map(Student::getStudentId)
-                    .toArray(String[]::new);
+                    .collect(Collectors.toList());
 
-            int successCount = barcodeService.generateBulkBarcodes(studentIds);
+            if (async) {
+                BulkBarcodeGenerator.Job job = bulkBarcodeGenerator.startJob(studentIds);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toMap());
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("total", students.size());
-            response.put("generated", successCount);
-            response.put("message", "Generated " + successCount + " barcodes");
+            BulkBarcodeGenerator.Job job = bulkBarcodeGenerator.generateNow(studentIds);
+
+            Map<String, Object> response = job.toMap();
+            response.put("success", job.getFailed() == 0);
+            response.put("message", "Generated " + job.getGenerated() + " barcodes");
 
             return ResponseEntity.ok(response);
 
@@ -136,6 +245,36 @@ public class BarcodeController {
         }
     }
 
+    /**
+     * Get progress of a bulk generation job
+     * GET /api/barcode/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getGenerationJob(@PathVariable String jobId) {
+        return bulkBarcodeGenerator.getJob(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.toMap()))
+                .orElseGet(() -> jobNotFound(jobId));
+    }
+
+    /**
+     * Cancel a bulk generation job
+     * DELETE /api/barcode/jobs/{jobId}
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<?> cancelGenerationJob(@PathVariable String jobId) {
+        if (!bulkBarcodeGenerator.cancelJob(jobId)) {
+            return jobNotFound(jobId);
+        }
+        return ResponseEntity.ok(bulkBarcodeGenerator.getJob(jobId).map(BulkBarcodeGenerator.Job::toMap).orElse(Map.of()));
+    }
+
+    private ResponseEntity<?> jobNotFound(String jobId) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Job not found");
+        error.put("message", "No barcode generation job with ID " + jobId);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
     /**
      * Check if barcode exists for a student
      * GET /api/barcode/check/{studentId}
@@ -183,6 +322,61 @@ public class BarcodeController {
         }
     }
 
+    /**
+     * Get barcode as SVG (vector, a fraction of the PNG size, sharp at any print resolution)
+     * GET /api/barcode/svg/{studentId}
+     *
+     * @param studentId The student ID
+     * @return SVG image
+     */
+    @GetMapping("/svg/{studentId}")
+    public ResponseEntity<?> getBarcodeSvg(@PathVariable String studentId) {
+        try {
+            studentLookupCache.findByStudentId(studentId)
+                    .orElseThrow(() -> new RuntimeException("Student not found: " + studentId));
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.valueOf("image/svg+xml"))
+                    .body(barcodeService.generateBarcodeSvg(studentId));
+
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to generate barcode");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Get barcode as a Code 128 run list (bar/space widths in modules, starting with a bar)
+     * GET /api/barcode/runs/{studentId}
+     *
+     * For clients that draw the bars themselves (canvas, PDF, label printers)
+     */
+    @GetMapping("/runs/{studentId}")
+    public ResponseEntity<?> getBarcodeRuns(@PathVariable String studentId) {
+        try {
+            studentLookupCache.findByStudentId(studentId)
+                    .orElseThrow(() -> new RuntimeException("Student not found: " + studentId));
+
+            int[] runs = barcodeService.generateBarRuns(studentId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("studentId", studentId);
+            response.put("format", "CODE_128");
+            response.put("runs", runs);
+            response.put("modules", Arrays.stream(runs).sum());
+            response.put("quietZoneModules", barcodeService.getSvgQuietZoneModules());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to generate barcode");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * ⚠️ NEW ENDPOINT: Validate a scanned barcode
      * POST /api/barcode/validate
@@ -212,12 +406,13 @@ public class BarcodeController {
     @PostMapping("/validate")
     public ResponseEntity<?> validateBarcode(
             @RequestBody Map<String, Object> request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
             Authentication authentication) {
 
         try {
             String scannedBarcode = (String) request.get("scannedBarcode");
             Long examId = Long.valueOf(request.get("examId").toString());
-            String username = authentication.getName();
+            String username = resolveUsername(authentication, authHeader);
 
             // Validate barcode using service
             BarcodeService.BarcodeValidationResult result =
@@ -246,14 +441,97 @@ public class BarcodeController {
         }
     }
 
+    /**
+     * Validate many scanned barcodes in one call (offline scan queue replay)
+     * POST /api/barcode/validate/batch
+     *
+     * Request Body:
+     * {
+     *   "scans": [
+     *     { "scannedBarcode": "BCS25165336", "examId": 1, "clientTimestamp": 1737887400000 },
+     *     { "scannedBarcode": "BCS25165337", "examId": 1, "clientTimestamp": 1737887405000 }
+     *   ]
+     * }
+     *
+     * Returns one result per scan, in request order. Students are resolved
+     * with one query, each exam is loaded once, and the audit rows are
+     * queued for the write-behind audit writer.
+     * Scans count against the caller's rate limit at their clientTimestamp,
+     * clamped to [last accepted scan, now]; one ahead of the server clock is
+     * rejected as INVALID_TIMESTAMP.
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateBarcodeBatch(
+            @RequestBody Map<String, List<BarcodeScanEntry>> request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            Authentication authentication) {
+
+        try {
+            List<BarcodeScanEntry> scans = request.get("scans");
+
+            if (scans == null || scans.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "scans list is required"));
+            }
+            if (scans.size() > MAX_BATCH_SCANS) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("error", "A batch can contain at most " + MAX_BATCH_SCANS + " scans"));
+            }
+
+            String username = resolveUsername(authentication, authHeader);
+            List<BarcodeService.BarcodeValidationResult> results =
+                    barcodeService.validateBarcodeScans(scans, username);
+
+            List<Map<String, Object>> items = new ArrayList<>();
+            int validCount = 0;
+            for (int i = 0; i < results.size(); i++) {
+                BarcodeService.BarcodeValidationResult result = results.get(i);
+                BarcodeScanEntry scan = scans.get(i);
+
+                Map<String, Object> item = new HashMap<>();
+                item.put("index", i);
+                item.put("scannedBarcode", result.getScannedBarcode());
+                item.put("examId", scan.getExamId());
+                item.put("clientTimestamp", scan.getClientTimestamp());
+                item.put("valid", result.isValid());
+                item.put("validationStatus", result.getValidationStatus());
+
+                if (result.isValid()) {
+                    item.put("student", result.getStudent());
+                    validCount++;
+                } else {
+                    item.put("errorMessage", result.getErrorMessage());
+                }
+                items.add(item);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("total", results.size());
+            response.put("valid", validCount);
+            response.put("invalid", results.size() - validCount);
+            response.put("results", items);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Batch validation failed");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Get scan statistics for current user
      * GET /api/barcode/stats
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getScanStats(Authentication authentication) {
+    public ResponseEntity<?> getScanStats(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            Authentication authentication) {
         try {
-            String username = authentication.getName();
+            String username = resolveUsername(authentication, authHeader);
             Map<String, Object> stats = barcodeService.getScanStatistics(username);
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
@@ -264,10 +542,146 @@ public class BarcodeController {
         }
     }
 
+    /**
+     * Get audit writer statistics (queue depth, batches, backpressure)
+     * GET /api/barcode/audit/stats
+     */
+    @GetMapping("/audit/stats")
+    public ResponseEntity<?> getAuditStats() {
+        return ResponseEntity.ok(scanAuditWriter.getMetrics());
+    }
+
+    /**
+     * Get barcode pack statistics (stored barcodes, file size, dead bytes)
+     * GET /api/barcode/pack/stats
+     */
+    @GetMapping("/pack/stats")
+    public ResponseEntity<?> getPackStats() {
+        return ResponseEntity.ok(barcodePackStore.getMetrics());
+    }
+
+    /**
+     * Compact the barcode pack (drop replaced images)
+     * POST /api/barcode/pack/compact
+     */
+    @PostMapping("/pack/compact")
+    public ResponseEntity<?> compactPack() {
+        try {
+            barcodePackStore.compact();
+            return ResponseEntity.ok(barcodePackStore.getMetrics());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to compact barcode pack");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Export barcode images as a ZIP (for print shops)
+     * POST /api/barcode/export
+     *
+     * Request Body (set ONE selector):
+     * {
+     *   "program": "Computer Science"      // or
+     *   "examId": 1                         // or
+     *   "studentIds": ["BCS25165336", ...]
+     *   "format": "png"                     // optional, "png" (default) or "svg"
+     * }
+     *
+     * The archive is streamed - each image is written as soon as it is read from
+     * the barcode pack or rendered, so large cohorts don't build up in memory.
+     * Unknown student IDs are listed in MISSING.txt, render failures in ERRORS.txt.
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBarcodes(@RequestBody BarcodeExportRequest request) {
+        String format = request.getFormat() == null ? "png" : request.getFormat().toLowerCase();
+        if (!format.equals("png") && !format.equals("svg")) {
+            return exportError(HttpStatus.BAD_REQUEST, "Invalid format", "format must be png or svg");
+        }
+
+        // Resolve the selection up front so bad requests get a JSON error, not a broken ZIP
+        BarcodeExportService.Selection selection;
+        try {
+            selection = barcodeExportService.resolveSelection(request);
+        } catch (Exception e) {
+            return exportError(HttpStatus.BAD_REQUEST, "Invalid export request", e.getMessage());
+        }
+
+        String filename = "barcodes-" + selection.getName() + ".zip";
+        StreamingResponseBody body = outputStream -> barcodeExportService.writeZip(selection, format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Printable A4 ID card sheets (name, program, barcode, student ID)
+     * POST /api/barcode/id-cards/sheets
+     *
+     * Request Body: same selectors as /export, plus
+     * {
+     *   "format": "pdf",     // "pdf" (default) or "png" (ZIP of page-001.png, ...)
+     *   "columns": 2,        // cards across, 1-4
+     *   "rows": 5            // cards down, 1-10
+     * }
+     *
+     * Pages are rendered server-side in parallel and streamed out as they finish,
+     * so the library PCs only have to print the result.
+     */
+    @PostMapping("/id-cards/sheets")
+    public ResponseEntity<StreamingResponseBody> getIdCardSheets(@RequestBody IdCardSheetRequest request) {
+        String format = request.getFormat() == null ? "pdf" : request.getFormat().toLowerCase();
+        if (!format.equals("pdf") && !format.equals("png")) {
+            return exportError(HttpStatus.BAD_REQUEST, "Invalid format", "format must be pdf or png");
+        }
+
+        BarcodeExportService.Selection selection;
+        IdCardSheetService.SheetLayout layout;
+        try {
+            layout = idCardSheetService.layout(request.getColumns(), request.getRows());
+            selection = barcodeExportService.resolveSelection(request);
+        } catch (Exception e) {
+            return exportError(HttpStatus.BAD_REQUEST, "Invalid sheet request", e.getMessage());
+        }
+
+        boolean pdf = format.equals("pdf");
+        String filename = "id-cards-" + selection.getName() + (pdf ? ".pdf" : ".zip");
+        StreamingResponseBody body = outputStream ->
+                idCardSheetService.writeSheets(selection.getStudentIds(), layout, format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(pdf ? "application/pdf" : "application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportError(HttpStatus status, String error, String message) {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, body));
+    }
+
+    /**
+     * Get rendered barcode image cache statistics (hits, misses, evictions)
+     * GET /api/barcode/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getImageCacheStats() {
+        return ResponseEntity.ok(barcodeImageCache.getMetrics());
+    }
+
     /**
      * ⭐ NEW LIBRARIAN ENDPOINT: Get all student ID cards (student info + barcode)
      * GET /api/barcode/id-cards
      *
+     * For large intakes use /id-cards/stream instead (NDJSON, flat memory use).
+     *
      * Returns list of all students with their ID card data including:
      * - Student ID (e.g., "BCS25165336")
      * - Full Name
@@ -277,29 +691,16 @@ public class BarcodeController {
      * Librarian can use this to print physical ID cards
      */
     @GetMapping("/id-cards")
-    public ResponseEntity<?> getAllIdCards() {
+    public ResponseEntity<?> getAllIdCards(@RequestParam(defaultValue = "png") String format) {
         try {
             List<Student> students = studentRepository.findAll();
             List<StudentIdCardDTO> idCards = new ArrayList<>();
 
             for (Student student : students) {
                 try {
-                    // Generate barcode as bytes
-                    byte[] barcodeBytes = barcodeService.generateBarcodeBytes(student.getStudentId());
-
-                    // Convert to Base64 for JSON transport
-                    String barcodeBase64 = Base64.getEncoder().encodeToString(barcodeBytes);
-
-                    // Create ID card DTO
-                    StudentIdCardDTO idCard = new StudentIdCardDTO(
-                            student.getId(),
-                            student.getStudentId(),
-                            student.getFullName(),
-                            student.getProgram(),
-                            barcodeBase64
-                    );
-
-                    idCards.add(idCard);
+                    // Barcode PNG as Base64 for JSON transport
+                    idCards.add(toIdCard(student.getId(), student.getStudentId(),
+                            student.getFullName(), student.getProgram(), format));
                 } catch (Exception e) {
                     System.err.println("❌ Failed to generate ID card for " + student.getStudentId() + ": " + e.getMessage());
                 }
@@ -320,6 +721,68 @@ public class BarcodeController {
         }
     }
 
+    /**
+     * Stream all student ID cards as NDJSON (one card per line)
+     * GET /api/barcode/id-cards/stream
+     *
+     * Same card fields as /id-cards, but students are read page by page and each
+     * card is written as soon as it is rendered, so memory use stays flat no matter
+     * how many students there are. A card that fails to render is written as
+     * {"studentId": "...", "error": "..."} instead.
+     */
+    @GetMapping(value = "/id-cards/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllIdCards(@RequestParam(defaultValue = "png") String format) {
+        StreamingResponseBody body = outputStream -> {
+            long lastId = 0;
+            List<StudentRepository.IdCardView> page;
+            do {
+                page = studentRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                        PageRequest.of(0, ID_CARD_STREAM_PAGE_SIZE));
+                for (StudentRepository.IdCardView student : page) {
+                    writeIdCardLine(outputStream, student, format);
+                    lastId = student.getId();
+                }
+                outputStream.flush();
+            } while (page.size() == ID_CARD_STREAM_PAGE_SIZE);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    private void writeIdCardLine(OutputStream outputStream, StudentRepository.IdCardView student,
+                                 String format) throws IOException {
+        Object line;
+        try {
+            line = toIdCard(student.getId(), student.getStudentId(), student.getFullName(), student.getProgram(), format);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to generate ID card for " + student.getStudentId() + ": " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("studentId", student.getStudentId());
+            error.put("error", e.getMessage());
+            line = error;
+        }
+        outputStream.write(objectMapper.writeValueAsBytes(line));
+        outputStream.write('\n');
+    }
+
+    /**
+     * Build an ID card (student fields + barcode)
+     * @param format - "png" for a Base64 PNG (default), "svg" for SVG markup
+     */
+    private StudentIdCardDTO toIdCard(Long id, String studentId, String fullName, String program,
+                                      String format) throws Exception {
+        if ("svg".equalsIgnoreCase(format)) {
+            StudentIdCardDTO idCard = new StudentIdCardDTO(id, studentId, fullName, program, null);
+            idCard.setBarcodeSvg(new String(barcodeService.generateBarcodeSvg(studentId), StandardCharsets.UTF_8));
+            return idCard;
+        }
+        byte[] barcodeBytes = barcodeService.generateBarcodeBytes(studentId);
+        return new StudentIdCardDTO(id, studentId, fullName, program,
+                Base64.getEncoder().encodeToString(barcodeBytes));
+    }
+
     /**
      * ⭐ NEW LIBRARIAN ENDPOINT: Get ID cards for specific students (batch)
      * POST /api/barcode/id-cards/batch
@@ -329,10 +792,12 @@ public class BarcodeController {
      *   "studentIds": ["BCS25165336", "BCS25165337", "BCS25165338"]
      * }
      *
-     * Returns ID card data for the specified students
+     * Returns ID card data for the specified students.
+     * Students are resolved in one batch and barcodes rendered across all cores.
      */
     @PostMapping("/id-cards/batch")
-    public ResponseEntity<?> getBatchIdCards(@RequestBody Map<String, List<String>> request) {
+    public ResponseEntity<?> getBatchIdCards(@RequestBody Map<String, List<String>> request,
+                                             @RequestParam(defaultValue = "png") String format) {
         try {
             List<String> studentIds = request.get("studentIds");
 
@@ -341,29 +806,31 @@ public class BarcodeController {
                         .body(Map.of("error", "studentIds list is required"));
             }
 
-            List<StudentIdCardDTO> idCards = new ArrayList<>();
+            // One chunked IN query for the whole batch (or none, from the directory/cache)
+            Map<String, Student> students = studentBatchResolver.resolve(studentIds);
 
-            for (String studentId : studentIds) {
-                Optional<Student> studentOpt = studentRepository.findByStudentId(studentId);
-
-                if (studentOpt.isPresent()) {
-                    Student student = studentOpt.get();
-                    try {
-                        byte[] barcodeBytes = barcodeService.generateBarcodeBytes(student.getStudentId());
-                        String barcodeBase64 = Base64.getEncoder().encodeToString(barcodeBytes);
-
-                        StudentIdCardDTO idCard = new StudentIdCardDTO(
-                                student.getId(),
-                                student.getStudentId(),
-                                student.getFullName(),
-                                student.getProgram(),
-                                barcodeBase64
-                        );
-
-                        idCards.add(idCard);
-                    } catch (Exception e) {
-                        System.err.println("❌ Failed to generate barcode for " + studentId);
-                    }
+            // Render the barcodes in parallel, keep the request order
+            List<CompletableFuture<StudentIdCardDTO>> pending = new ArrayList<>();
+            for (String studentId : new LinkedHashSet<>(studentIds)) {
+                Student student = students.get(studentId);
+                if (student != null) {
+                    pending.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return toIdCard(student.getId(), student.getStudentId(),
+                                    student.getFullName(), student.getProgram(), format);
+                        } catch (Exception e) {
+                            System.err.println("❌ Failed to generate barcode for " + studentId);
+                            return null;
+                        }
+                    }, renderExecutor));
+                }
+            }
+
+            List<StudentIdCardDTO> idCards = new ArrayList<>(pending.size());
+            for (CompletableFuture<StudentIdCardDTO> idCard : pending) {
+                StudentIdCardDTO card = idCard.join();
+                if (card != null) {
+                    idCards.add(card);
                 }
             }
 
@@ -385,47 +852,49 @@ public class BarcodeController {
 
     /**
      * ⭐ NEW LIBRARIAN ENDPOINT: Search students for ID card printing
-     * GET /api/barcode/id-cards/search?query=Alice
+     * GET /api/barcode/id-cards/search?query=Alice&page=0&size=20
      *
-     * Search by name or student ID, returns matching ID cards
+     * Search by name or student ID, returns matching ID cards.
+     * Uses the in-memory search index: ranked prefix/substring matches, paginated.
      */
     @GetMapping("/id-cards/search")
-    public ResponseEntity<?> searchIdCards(@RequestParam String query) {
+    public ResponseEntity<?> searchIdCards(@RequestParam String query,
+                                           @RequestParam(defaultValue = "png") String format,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Student> students = new ArrayList<>();
-
-            // Search by student ID
-            studentRepository.findByStudentId(query).ifPresent(students::add);
+            page = Math.max(0, page);
+            size = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+            List<StudentIdCardDTO> idCards = new ArrayList<>();
+            int total;
 
-            // Search by name (if not found by ID)
-            if (students.isEmpty()) {
-                students.addAll(studentRepository.findByFullNameContainingIgnoreCase(query));
+            if (studentSearchIndex.isLoaded()) {
+                StudentSearchIndex.SearchResult result = studentSearchIndex.search(query, page, size);
+                total = result.getTotal();
+                for (StudentSearchIndex.Hit hit : result.getHits()) {
+                    addIdCard(idCards, hit.getId(), hit.getStudentId(), hit.getFullName(), hit.getProgram(), format);
+                }
+            } else {
+                // Index still building: exact ID, then name search in the database
+                List<Student> students = new ArrayList<>();
+                studentLookupCache.findByStudentId(query).ifPresent(students::add);
+                if (students.isEmpty()) {
+                    students.addAll(studentRepository.findByFullNameContainingIgnoreCase(query));
+                }
+                total = students.size();
+                for (Student student : students) {
+                    addIdCard(idCards, student.getId(), student.getStudentId(), student.getFullName(),
+                            student.getProgram(), format);
+                }
             }
 
-            List<StudentIdCardDTO> idCards = students.stream()
-                    .map(student -> {
-                        try {
-                            byte[] barcodeBytes = barcodeService.generateBarcodeBytes(student.getStudentId());
-                            String barcodeBase64 = Base64.getEncoder().encodeToString(barcodeBytes);
-
-                            return new StudentIdCardDTO(
-                                    student.getId(),
-                                    student.getStudentId(),
-                                    student.getFullName(),
-                                    student.getProgram(),
-                                    barcodeBase64
-                            );
-                        } catch (Exception e) {
-                            return null;
-                        }
-                    })
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("query", query);
             response.put("found", idCards.size());
+            response.put("total", total);
+            response.put("page", page);
+            response.put("size", size);
             response.put("idCards", idCards);
 
             return ResponseEntity.ok(response);
@@ -437,4 +906,28 @@ public class BarcodeController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
\ No newline at end of file
+
+    private void addIdCard(List<StudentIdCardDTO> idCards, Long id, String studentId, String fullName,
+                           String program, String format) {
+        try {
+            idCards.add(toIdCard(id, studentId, fullName, program, format));
+        } catch (Exception e) {
+            System.err.println("❌ Failed to generate ID card for " + studentId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Helper method to get the invigilator's username.
+     * Uses the security context when present, otherwise the JWT token
+     * (same as the other controllers).
+     */
+    private String resolveUsername(Authentication authentication, String authHeader) {
+        if (authentication != null) {
+            return authentication.getName();
+        }
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return jwtUtil.extractUsername(authHeader.substring(7)); // Remove "Bearer " prefix
+        }
+        throw new RuntimeException("Authentication required");
+    }
+}
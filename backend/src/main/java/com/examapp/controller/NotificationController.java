@@ -0,0 +1,50 @@
+package com.examapp.controller;
+
+import com.examapp.service.EmailService;
+import com.examapp.service.NotificationCoalescer;
+import com.examapp.service.NotificationOutbox;
+import com.examapp.service.SmtpDeliveryEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NotificationController - Monitoring for email notifications.
+ * Shows how the email outbox is keeping up (queued, sent, retried, failed)
+ * how many repeats were folded into digests, and how well SMTP
+ * connections are reused.
+ */
+@RestController
+@RequestMapping("/api/notifications")
+@CrossOrigin(origins = "*")
+public class NotificationController {
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    @Autowired
+    private SmtpDeliveryEngine smtpDeliveryEngine;
+
+    @Autowired
+    private EmailService emailService;
+
+    /**
+     * Email outbox statistics
+     * GET /api/notifications/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getNotificationStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("outbox", notificationOutbox.getMetrics());
+        stats.put("coalescing", notificationCoalescer.getMetrics());
+        stats.put("smtp", smtpDeliveryEngine.getMetrics());
+        stats.put("last24Hours", emailService.getNotificationCount24Hours());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -2,11 +2,21 @@ package com.examapp.controller;
 
 import com.examapp.model.Student;
 import com.examapp.repository.StudentRepository;
+import com.examapp.service.StudentBatchResolver;
+import com.examapp.service.StudentDataChangedEvent;
+import com.examapp.service.StudentDirectory;
+import com.examapp.service.StudentLookupCache;
+import com.examapp.service.StudentSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * StudentController - READ-ONLY endpoints for student data
@@ -25,6 +35,23 @@ public class StudentController {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private StudentLookupCache studentLookupCache;
+
+    @Autowired
+    private StudentDirectory studentDirectory;
+
+    @Autowired
+    private StudentBatchResolver studentBatchResolver;
+
+    @Autowired
+    private StudentSearchIndex studentSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 200;
+
     /**
      * Get all students (READ-ONLY)
      * GET /api/students
@@ -40,7 +67,7 @@ public class StudentController {
      */
     @GetMapping("/search")
     public ResponseEntity<?> searchStudent(@RequestParam String studentId) {
-        return studentRepository.findByStudentId(studentId)
+        return studentLookupCache.findByStudentId(studentId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -57,13 +84,39 @@ public class StudentController {
     }
 
     /**
-     * Search students by name (READ-ONLY)
-     * GET /api/students/search-by-name?name=Alice
+     * Search students by name or student ID (READ-ONLY)
+     * GET /api/students/search-by-name?name=Alice&page=0&size=50
+     *
+     * Served from the in-memory search index: ranked (ID, name prefix, word
+     * prefix, substring), paginated, total match count in X-Total-Count.
      */
     @GetMapping("/search-by-name")
-    public ResponseEntity<List<Student>> searchByName(@RequestParam String name) {
-        List<Student> students = studentRepository.findByFullNameContainingIgnoreCase(name);
-        return ResponseEntity.ok(students);
+    public ResponseEntity<List<Student>> searchByName(@RequestParam String name,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "50") int size) {
+        if (!studentSearchIndex.isLoaded()) {
+            // Index still building
+            List<Student> students = studentRepository.findByFullNameContainingIgnoreCase(name);
+            return ResponseEntity.ok(students);
+        }
+
+        StudentSearchIndex.SearchResult result = studentSearchIndex.search(name,
+                Math.max(0, page), Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE)));
+        List<String> studentIds = result.getHits().stream()
+                .map(StudentSearchIndex.Hit::getStudentId)
+                .collect(Collectors.toList());
+        Map<String, Student> studentsById = studentBatchResolver.resolve(studentIds);
+
+        List<Student> students = new ArrayList<>(studentIds.size());
+        for (String studentId : studentIds) {
+            Student student = studentsById.get(studentId);
+            if (student != null) {
+                students.add(student);
+            }
+        }
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotal()))
+                .body(students);
     }
 
     /**
@@ -75,4 +128,29 @@ public class StudentController {
         List<Student> students = studentRepository.findByProgram(program);
         return ResponseEntity.ok(students);
     }
-}
\ No newline at end of file
+
+    /**
+     * Refresh in-memory student data (lookup cache, directory, search index) after a sync or direct DB import
+     * POST /api/students/cache/invalidate
+     * Body (optional): {"studentIds": ["BCS25165336"]} - omit to clear everything
+     */
+    @PostMapping("/cache/invalidate")
+    public ResponseEntity<?> invalidateCache(@RequestBody(required = false) Map<String, List<String>> request) {
+        List<String> studentIds = request == null ? null : request.get("studentIds");
+        eventPublisher.publishEvent(new StudentDataChangedEvent(studentIds));
+        return getCacheStats();
+    }
+
+    /**
+     * Student lookup cache, directory and search index statistics
+     * GET /api/students/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>(studentLookupCache.getMetrics());
+        stats.put("directory", studentDirectory.getMetrics());
+        stats.put("batchResolver", studentBatchResolver.getMetrics());
+        stats.put("searchIndex", studentSearchIndex.getMetrics());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,66 @@
+package com.examapp.dto;
+
+/**
+ * AttendanceBatchEntry DTO - one record in a batch attendance upload.
+ * Sent by the frontend when syncing attendance marked while offline.
+ */
+public class AttendanceBatchEntry {
+
+    private Long examId;
+    private Long studentId;       // database ID of the student
+    private String status;        // "PRESENT", "ABSENT", "LATE"
+    private String method;        // "MANUAL" or "SCANNED"
+    private Long clientTimestamp; // Epoch millis when the device marked the student
+
+    // Constructors
+    public AttendanceBatchEntry() {}
+
+    public AttendanceBatchEntry(Long examId, Long studentId, String status, String method, Long clientTimestamp) {
+        this.examId = examId;
+        this.studentId = studentId;
+        this.status = status;
+        this.method = method;
+        this.clientTimestamp = clientTimestamp;
+    }
+
+    // Getters and Setters
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public Long getClientTimestamp() {
+        return clientTimestamp;
+    }
+
+    public void setClientTimestamp(Long clientTimestamp) {
+        this.clientTimestamp = clientTimestamp;
+    }
+}
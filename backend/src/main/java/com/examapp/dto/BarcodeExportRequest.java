@@ -0,0 +1,58 @@
+package com.examapp.dto;
+
+import java.util.List;
+
+/**
+ * BarcodeExportRequest DTO - selects the students for a barcode export.
+ * Set ONE of program, examId or studentIds.
+ */
+public class BarcodeExportRequest {
+
+    private String program;          // e.g., "Computer Science"
+    private Long examId;             // all students enrolled in this exam
+    private List<String> studentIds; // explicit list, e.g., ["BCS25165336"]
+    private String format;           // "png" (default) or "svg"
+
+    // Constructors
+    public BarcodeExportRequest() {}
+
+    public BarcodeExportRequest(String program, Long examId, List<String> studentIds, String format) {
+        this.program = program;
+        this.examId = examId;
+        this.studentIds = studentIds;
+        this.format = format;
+    }
+
+    // Getters and Setters
+    public String getProgram() {
+        return program;
+    }
+
+    public void setProgram(String program) {
+        this.program = program;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public List<String> getStudentIds() {
+        return studentIds;
+    }
+
+    public void setStudentIds(List<String> studentIds) {
+        this.studentIds = studentIds;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+}
@@ -0,0 +1,46 @@
+package com.examapp.dto;
+
+/**
+ * BarcodeScanEntry DTO - one scan in a batch validation request.
+ * Sent by the frontend when replaying scans queued while offline.
+ */
+public class BarcodeScanEntry {
+
+    private String scannedBarcode; // e.g., "BCS25165336"
+    private Long examId;
+    private Long clientTimestamp; // Epoch millis when the device scanned the card
+
+    // Constructors
+    public BarcodeScanEntry() {}
+
+    public BarcodeScanEntry(String scannedBarcode, Long examId, Long clientTimestamp) {
+        this.scannedBarcode = scannedBarcode;
+        this.examId = examId;
+        this.clientTimestamp = clientTimestamp;
+    }
+
+    // Getters and Setters
+    public String getScannedBarcode() {
+        return scannedBarcode;
+    }
+
+    public void setScannedBarcode(String scannedBarcode) {
+        this.scannedBarcode = scannedBarcode;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getClientTimestamp() {
+        return clientTimestamp;
+    }
+
+    public void setClientTimestamp(Long clientTimestamp) {
+        this.clientTimestamp = clientTimestamp;
+    }
+}
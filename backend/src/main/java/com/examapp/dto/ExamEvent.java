@@ -0,0 +1,145 @@
+package com.examapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * ExamEvent DTO - one change pushed to supervisors watching an exam live.
+ * Only the fields that apply to the event type are sent.
+ *
+ * Types:
+ * - "attendance-marked"  studentId, studentNumber, status, method, attendanceId
+ * - "status-changed"     attendanceId, studentId, previousStatus, status
+ * - "incident-reported"  incidentId, studentId (if any), category, severity
+ * - "scan"               studentNumber, validationStatus (scans that did not mark attendance)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExamEvent {
+
+    private String type;
+    private Long examId;
+    private Long attendanceId;
+    private Long incidentId;
+    private Long studentId;        // database ID of the student
+    private String studentNumber;  // student ID / barcode value, e.g. "BCS25165336"
+    private String status;
+    private String previousStatus;
+    private String method;
+    private String category;
+    private String severity;
+    private String validationStatus;
+    private long timestamp;        // Epoch millis on the server
+
+    // Constructors
+    public ExamEvent() {}
+
+    public ExamEvent(String type, Long examId) {
+        this.type = type;
+        this.examId = examId;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public void setExamId(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getAttendanceId() {
+        return attendanceId;
+    }
+
+    public void setAttendanceId(Long attendanceId) {
+        this.attendanceId = attendanceId;
+    }
+
+    public Long getIncidentId() {
+        return incidentId;
+    }
+
+    public void setIncidentId(Long incidentId) {
+        this.incidentId = incidentId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getStudentNumber() {
+        return studentNumber;
+    }
+
+    public void setStudentNumber(String studentNumber) {
+        this.studentNumber = studentNumber;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public String getValidationStatus() {
+        return validationStatus;
+    }
+
+    public void setValidationStatus(String validationStatus) {
+        this.validationStatus = validationStatus;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,32 @@
+package com.examapp.dto;
+
+/**
+ * IdCardSheetRequest DTO - printable A4 ID card sheets.
+ * Students are selected like a barcode export (ONE of program, examId or studentIds);
+ * format is "pdf" (default) or "png" (ZIP of page images).
+ */
+public class IdCardSheetRequest extends BarcodeExportRequest {
+
+    private Integer columns;  // cards across the page (default 2)
+    private Integer rows;     // cards down the page (default 5)
+
+    // Constructors
+    public IdCardSheetRequest() {}
+
+    // Getters and Setters
+    public Integer getColumns() {
+        return columns;
+    }
+
+    public void setColumns(Integer columns) {
+        this.columns = columns;
+    }
+
+    public Integer getRows() {
+        return rows;
+    }
+
+    public void setRows(Integer rows) {
+        this.rows = rows;
+    }
+}
@@ -10,6 +10,7 @@ public class StudentIdCardDTO {
     private String fullName;
     private String program;
     private String barcodeBase64; // Base64 encoded PNG image of barcode
+    private String barcodeSvg;    // SVG markup of barcode (when format=svg is requested)
 
     // Constructors
     public StudentIdCardDTO() {}
@@ -62,5 +63,12 @@ public class StudentIdCardDTO {
     public void setBarcodeBase64(String barcodeBase64) {
         this.barcodeBase64 = barcodeBase64;
     }
-}
 
+    public String getBarcodeSvg() {
+        return barcodeSvg;
+    }
+
+    public void setBarcodeSvg(String barcodeSvg) {
+        this.barcodeSvg = barcodeSvg;
+    }
+}
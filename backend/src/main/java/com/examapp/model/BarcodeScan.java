@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
  * - Logs EVERY barcode scan attempt (success or failure)
  * - Tracks who scanned, when, and for which exam
  * - Helps detect fraudulent ID cards or scanning patterns
- * - Used for rate limiting and security analysis
+ * - Used for security analysis (rate limiting is done in memory by ScanRateLimiter)
  */
 @Entity
 @Table(name = "barcode_scans")
@@ -35,10 +35,13 @@ public class BarcodeScan {
     private String scannedBy; // Username of invigilator
 
     @Column(name = "scan_timestamp", nullable = false)
-    private LocalDateTime scanTimestamp;
+    private LocalDateTime scanTimestamp; // Server time the scan was received
+
+    @Column(name = "client_timestamp")
+    private LocalDateTime clientTimestamp; // Device time of a replayed offline scan, clamped by ScanRateLimiter
 
     @Column(name = "validation_status", nullable = false)
-    private String validationStatus; // SUCCESS, STUDENT_NOT_FOUND, NOT_ENROLLED, DUPLICATE, RATE_LIMITED
+    private String validationStatus; // SUCCESS, STUDENT_NOT_FOUND, NOT_ENROLLED, DUPLICATE, RATE_LIMITED, INVALID_TIMESTAMP
 
     @Column(name = "error_message")
     private String errorMessage; // Details if validation failed
@@ -111,6 +114,14 @@ public class BarcodeScan {
         this.scanTimestamp = scanTimestamp;
     }
 
+    public LocalDateTime getClientTimestamp() {
+        return clientTimestamp;
+    }
+
+    public void setClientTimestamp(LocalDateTime clientTimestamp) {
+        this.clientTimestamp = clientTimestamp;
+    }
+
     public String getValidationStatus() {
         return validationStatus;
     }
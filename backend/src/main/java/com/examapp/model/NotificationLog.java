@@ -6,8 +6,14 @@ import java.time.LocalDateTime;
 /**
  * NotificationLog - Audit trail for all email notifications sent
  *
- * Security: Tracks WHAT notification was sent WHEN, but NOT the content
+ * Security: Tracks WHAT notification was sent WHEN, but NOT personal data.
+ * The body is kept only so a queued email can be (re)sent - it is always the
+ * generic notification text built by EmailService.
  * Used for debugging and ensuring notifications were delivered
+ *
+ * Also serves as the email outbox: rows start as PENDING and are delivered
+ * by NotificationOutbox (PENDING -> SENDING -> SUCCESS, or back to PENDING
+ * with a later nextAttemptAt, and FAILED once the retries run out).
  */
 @Entity
 @Table(name = "notification_logs")
@@ -29,8 +35,11 @@ public class NotificationLog {
     @Column(name = "sent_at", nullable = false)
     private LocalDateTime sentAt;
 
+    @Column(name = "body", length = 2000)
+    private String body;
+
     @Column(name = "status", nullable = false)
-    private String status; // SUCCESS, FAILED
+    private String status; // PENDING, SENDING, SUCCESS, FAILED
 
     @Column(name = "error_message")
     private String errorMessage; // If failed, why?
@@ -38,6 +47,12 @@ public class NotificationLog {
     @Column(name = "related_entity_id")
     private Long relatedEntityId; // e.g., examId, studentId, incidentId
 
+    @Column(name = "attempts")
+    private Integer attempts = 0; // Delivery attempts so far
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // PENDING: not before this time (retry backoff)
+
     // Constructors
     public NotificationLog() {
         this.sentAt = LocalDateTime.now();
@@ -92,6 +107,14 @@ public class NotificationLog {
         this.sentAt = sentAt;
     }
 
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -115,5 +138,21 @@ public class NotificationLog {
     public void setRelatedEntityId(Long relatedEntityId) {
         this.relatedEntityId = relatedEntityId;
     }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
 }
 
@@ -4,8 +4,11 @@ import com.examapp.model.Attendance;
 import com.examapp.model.Exam;
 import com.examapp.model.Student;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,4 +56,65 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
      * @return List of attendance records
      */
     List<Attendance> findByMarkedBy(String markedBy);
-}
\ No newline at end of file
+
+    /**
+     * Find which (exam, student) pairs already have attendance, in one query
+     * @param examIds - exam IDs in the batch
+     * @param studentIds - student database IDs in the batch
+     * @return existing pairs (may include pairs not in the batch - check both IDs)
+     */
+    @Query("SELECT a.exam.id AS examId, a.student.id AS studentId FROM Attendance a " +
+           "WHERE a.exam.id IN :examIds AND a.student.id IN :studentIds")
+    List<MarkedPair> findMarkedPairs(@Param("examIds") Collection<Long> examIds,
+                                     @Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * An (exam, student) pair that already has an attendance record
+     */
+    interface MarkedPair {
+        Long getExamId();
+        Long getStudentId();
+    }
+
+    /**
+     * Count attendance by status for several exams in one GROUP BY
+     * @param examIds - exam IDs
+     * @return one row per (exam, status) that has records
+     */
+    @Query("SELECT a.exam.id AS examId, a.status AS status, COUNT(a) AS count FROM Attendance a " +
+           "WHERE a.exam.id IN :examIds GROUP BY a.exam.id, a.status")
+    List<StatusCount> countByStatusForExams(@Param("examIds") Collection<Long> examIds);
+
+    /**
+     * Count attendance by status for every exam (used to rebuild attendance counters)
+     */
+    @Query("SELECT a.exam.id AS examId, a.status AS status, COUNT(a) AS count FROM Attendance a " +
+           "GROUP BY a.exam.id, a.status")
+    List<StatusCount> countByStatusForAllExams();
+
+    /**
+     * Attendance count for one exam and status
+     */
+    interface StatusCount {
+        Long getExamId();
+        String getStatus();
+        Long getCount();
+    }
+
+    /**
+     * Current status of one attendance record, read from the database
+     * (not from an entity already loaded in this request)
+     */
+    @Query("SELECT a.status FROM Attendance a WHERE a.id = :id")
+    Optional<String> findStatusById(@Param("id") Long id);
+
+    /**
+     * Change the status only if it is still the one the caller read
+     * @return 1 if updated, 0 if the status had changed meanwhile (or the record is gone)
+     */
+    @Modifying
+    @Query("UPDATE Attendance a SET a.status = :newStatus WHERE a.id = :id AND a.status = :oldStatus")
+    int updateStatusIfUnchanged(@Param("id") Long id,
+                                @Param("oldStatus") String oldStatus,
+                                @Param("newStatus") String newStatus);
+}
@@ -32,7 +32,7 @@ public interface BarcodeScanRepository extends JpaRepository<BarcodeScan, Long>
     List<BarcodeScan> findByValidationStatusNot(String validationStatus);
 
     /**
-     * Count scans by invigilator within time range (for rate limiting)
+     * Count scans by invigilator within time range (for scan statistics)
      */
     @Query("SELECT COUNT(bs) FROM BarcodeScan bs WHERE bs.scannedBy = :username AND bs.scanTimestamp >= :since")
     long countRecentScansByUser(@Param("username") String username, @Param("since") LocalDateTime since);
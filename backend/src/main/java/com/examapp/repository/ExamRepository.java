@@ -3,8 +3,12 @@ package com.examapp.repository;
 import com.examapp.model.Exam;
 import com.examapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -42,4 +46,72 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
      * @return List of exams for that course
      */
     List<Exam> findByCourseCode(String courseCode);
-}
\ No newline at end of file
+
+    /**
+     * Get the student IDs enrolled in an exam without loading the roster entities
+     * @param examId - the exam ID
+     * @return List of enrolled student IDs (e.g., "BCS25165336")
+     */
+    @Query("SELECT s.studentId FROM Exam e JOIN e.students s WHERE e.id = :examId")
+    List<String> findEnrolledStudentIds(@Param("examId") Long examId);
+
+    /**
+     * Count enrolled students per exam straight from the exam_students join table
+     * (no roster entities loaded)
+     * @param examIds - exam IDs
+     * @return one row per exam that has enrolled students
+     */
+    @Query(value = "SELECT exam_id AS examId, COUNT(*) AS count FROM exam_students " +
+                   "WHERE exam_id IN (:examIds) GROUP BY exam_id", nativeQuery = true)
+    List<RosterCount> countEnrolledStudents(@Param("examIds") Collection<Long> examIds);
+
+    /**
+     * Count enrolled students for every exam (used to rebuild attendance counters)
+     */
+    @Query(value = "SELECT exam_id AS examId, COUNT(*) AS count FROM exam_students GROUP BY exam_id",
+           nativeQuery = true)
+    List<RosterCount> countEnrolledStudentsForAllExams();
+
+    /**
+     * Course details for summaries, without loading the exam entities (or their invigilator)
+     * @param examIds - exam IDs
+     */
+    @Query("SELECT e.id AS id, e.courseCode AS courseCode, e.courseName AS courseName, " +
+           "e.examDate AS examDate, e.startTime AS startTime FROM Exam e WHERE e.id IN :examIds ORDER BY e.id")
+    List<ExamHeader> findHeadersByIdIn(@Param("examIds") Collection<Long> examIds);
+
+    /**
+     * Course details for all exams on a date, in start time order
+     * @param examDate - the exam date
+     */
+    @Query("SELECT e.id AS id, e.courseCode AS courseCode, e.courseName AS courseName, " +
+           "e.examDate AS examDate, e.startTime AS startTime FROM Exam e " +
+           "WHERE e.examDate = :examDate ORDER BY e.startTime, e.id")
+    List<ExamHeader> findHeadersByExamDate(@Param("examDate") LocalDate examDate);
+
+    /**
+     * Course details for every exam
+     */
+    @Query("SELECT e.id AS id, e.courseCode AS courseCode, e.courseName AS courseName, " +
+           "e.examDate AS examDate, e.startTime AS startTime FROM Exam e ORDER BY e.id")
+    List<ExamHeader> findAllHeaders();
+
+    /**
+     * Number of students enrolled in one exam
+     */
+    interface RosterCount {
+        Long getExamId();
+        Long getCount();
+    }
+
+    /**
+     * Exam fields shown on an attendance summary
+     */
+    interface ExamHeader {
+        Long getId();
+        String getCourseCode();
+        String getCourseName();
+        LocalDate getExamDate();
+        LocalTime getStartTime();
+    }
+}
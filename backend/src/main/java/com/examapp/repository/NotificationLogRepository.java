@@ -1,12 +1,15 @@
 package com.examapp.repository;
 
 import com.examapp.model.NotificationLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -41,5 +44,46 @@ public interface NotificationLogRepository extends JpaRepository<NotificationLog
      */
     @Query("SELECT n FROM NotificationLog n WHERE n.sentAt >= :since ORDER BY n.sentAt DESC")
     List<NotificationLog> findRecentNotifications(@Param("since") LocalDateTime since);
+
+    /**
+     * Outbox: pending notifications that are due to be sent, oldest first
+     */
+    @Query("SELECT n FROM NotificationLog n WHERE n.status = 'PENDING' " +
+           "AND (n.nextAttemptAt IS NULL OR n.nextAttemptAt <= :now) ORDER BY n.id")
+    List<NotificationLog> findDuePending(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Outbox: claim notifications for sending
+     * (plain UPDATEs - on SQLite a read inside the write transaction could fail with SQLITE_BUSY)
+     */
+    @Modifying
+    @Query("UPDATE NotificationLog n SET n.status = 'SENDING' WHERE n.id IN :ids AND n.status = 'PENDING'")
+    int markSending(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Outbox: record the outcome of one delivery attempt
+     */
+    @Modifying
+    @Query("UPDATE NotificationLog n SET n.status = :status, n.attempts = :attempts, " +
+           "n.nextAttemptAt = :nextAttemptAt, n.errorMessage = :errorMessage, n.sentAt = :sentAt WHERE n.id = :id")
+    int recordAttempt(@Param("id") Long id,
+                      @Param("status") String status,
+                      @Param("attempts") Integer attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("errorMessage") String errorMessage,
+                      @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Outbox: put notifications that were being sent when the application
+     * stopped back in the queue (at-least-once delivery)
+     */
+    @Modifying
+    @Query("UPDATE NotificationLog n SET n.status = 'PENDING' WHERE n.status = 'SENDING'")
+    int resetInterruptedSends();
+
+    /**
+     * Count notifications in a given state (e.g., PENDING)
+     */
+    long countByStatus(String status);
 }
 
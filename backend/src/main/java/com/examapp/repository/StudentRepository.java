@@ -1,8 +1,12 @@
 package com.examapp.repository;
 
 import com.examapp.model.Student;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -21,6 +25,14 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      */
     Optional<Student> findByStudentId(String studentId);
 
+    /**
+     * Find many students by their student IDs in one query
+     * Used for batch scan validation
+     * @param studentIds - the student IDs to look up
+     * @return List of students found (missing IDs are skipped)
+     */
+    List<Student> findByStudentIdIn(Collection<String> studentIds);
+
     /**
      * Find all students in a specific program
      * @param program - the program name (e.g., "Computer Science")
@@ -28,6 +40,14 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      */
     List<Student> findByProgram(String program);
 
+    /**
+     * Student IDs only (no entities) for everyone in a program, sorted
+     * @param program - the program name (e.g., "Computer Science")
+     * @return student IDs in that program
+     */
+    @Query("SELECT s.studentId FROM Student s WHERE s.program = :program ORDER BY s.studentId")
+    List<String> findStudentIdsByProgram(@Param("program") String program);
+
     /**
      * Check if a student ID already exists
      * @param studentId - the student ID to check
@@ -48,4 +68,45 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      * @return List of students with that verification status
      */
     List<Student> findByVerified(Boolean verified);
+
+    /**
+     * Read the next page of ID card fields, ordered by database ID (keyset paging)
+     * Returns plain projections (not managed entities), so streaming every student
+     * does not grow the persistence context
+     * @param afterId - last database ID of the previous page (0 for the first page)
+     * @param pageable - page size (use page 0)
+     * @return up to pageSize students with id > afterId
+     */
+    List<IdCardView> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Read the next page of the fields kept by StudentDirectory, ordered by database ID (keyset paging)
+     * @param afterId - last database ID of the previous page (0 for the first page)
+     * @param pageable - page size (use page 0)
+     * @return up to pageSize students with id > afterId
+     */
+    List<DirectoryView> findDirectoryByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Fields kept in the in-memory student directory
+     */
+    interface DirectoryView {
+        Long getId();
+        String getStudentId();
+        String getFullName();
+        String getProgram();
+        String getEmail();
+        Boolean getVerified();
+        java.time.LocalDateTime getRegistrationDate();
+    }
+
+    /**
+     * Fields needed to print a student ID card
+     */
+    interface IdCardView {
+        Long getId();
+        String getStudentId();
+        String getFullName();
+        String getProgram();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,348 @@
+package com.examapp.service;
+
+import com.examapp.dto.AttendanceSummary;
+import com.examapp.model.Exam;
+import com.examapp.repository.AttendanceRepository;
+import com.examapp.repository.ExamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * AttendanceCounters - Live per-exam attendance counts kept in memory
+ *
+ * Dashboards refresh summaries constantly during an exam session; with these
+ * counters a summary is built without touching the database.
+ *
+ * Each exam keeps its present, late and absent counts packed into ONE
+ * AtomicLong (21 bits each), so marking a student is a single atomic add,
+ * changing a status moves one count to another in the same add, and a
+ * summary always reads a consistent set of counts.
+ *
+ * Counters are rebuilt from the database (one GROUP BY each over attendance
+ * and exam_students) at startup and updated by AttendanceService after each
+ * write commits. Statuses other than PRESENT/LATE/ABSENT are not counted,
+ * same as the SQL summary.
+ *
+ * The server already takes requests while the rebuild runs, so writers go
+ * through recording(): a write and its counter update run under a shared
+ * lock, and the rebuild (queries + swap in of the new map) holds it
+ * exclusively. Every write is then either in the rebuilt counts or applied
+ * to them afterwards - never lost with the old map, never counted twice.
+ *
+ * Every change gets a version (one increasing sequence for all exams) that
+ * goes out with its live event; a snapshot carries the last version it
+ * includes, so the event stream can skip deltas already in the snapshot.
+ */
+@Component
+public class AttendanceCounters {
+
+    private static final int BITS_PER_COUNT = 21;
+    private static final long COUNT_MASK = (1L << BITS_PER_COUNT) - 1;
+    private static final int PRESENT_SHIFT = 0;
+    private static final int LATE_SHIFT = BITS_PER_COUNT;
+    private static final int ABSENT_SHIFT = 2 * BITS_PER_COUNT;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    private volatile Map<Long, ExamCounter> counters = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final AtomicLong versions = new AtomicLong();
+    private volatile boolean loaded;
+
+    // Metrics
+    private final LongAdder summariesServed = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private volatile long lastLoadMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild all counters from the database (writes wait until the new counters are in place)
+     */
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long started = System.currentTimeMillis();
+
+        Map<Long, Long> rosterSizes = new HashMap<>();
+        for (ExamRepository.RosterCount row : examRepository.countEnrolledStudentsForAllExams()) {
+            rosterSizes.put(row.getExamId(), row.getCount());
+        }
+        Map<Long, ExamCounter> rebuilt = new ConcurrentHashMap<>();
+        for (ExamRepository.ExamHeader header : examRepository.findAllHeaders()) {
+            rebuilt.put(header.getId(), new ExamCounter(header,
+                    rosterSizes.getOrDefault(header.getId(), 0L).intValue(), 0L));
+        }
+        for (AttendanceRepository.StatusCount row : attendanceRepository.countByStatusForAllExams()) {
+            ExamCounter counter = rebuilt.get(row.getExamId());
+            int shift = shiftFor(row.getStatus());
+            if (counter != null && shift >= 0) {
+                counter.counts.addAndGet(row.getCount() << shift);
+            }
+        }
+
+        counters = rebuilt;
+        loaded = true;
+        lastLoadMillis = System.currentTimeMillis() - started;
+        System.out.println("✅ Attendance counters loaded: " + rebuilt.size() + " exams in " + lastLoadMillis + " ms");
+    }
+
+    /**
+     * Check if the counters have been loaded (before that, callers use the database)
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Run a database write together with its counter updates
+     * (the write commits and calls recordMarked/recordStatusChange inside)
+     * @param write - the write
+     * @return what the write returns
+     */
+    public <T> T recording(Supplier<T> write) {
+        rebuildLock.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Start counting a new exam (nothing marked yet)
+     * @param exam - the saved exam, with its roster
+     */
+    public void registerExam(Exam exam) {
+        int rosterSize = exam.getStudents() != null ? exam.getStudents().size() : 0;
+        // Waits out a running rebuild, so the exam lands in the new map (a no-op if the rebuild saw it)
+        recording(() -> counters.putIfAbsent(exam.getId(), new ExamCounter(exam.getId(), exam.getCourseCode(),
+                exam.getCourseName(), exam.getExamDate(), exam.getStartTime(), rosterSize, 0L)));
+    }
+
+    /**
+     * Start counting an exam from a summary computed in the database
+     * (an exam that was not present when the counters were loaded)
+     */
+    void track(ExamRepository.ExamHeader header, AttendanceSummary summary) {
+        long counts = ((long) summary.getPresentCount() << PRESENT_SHIFT)
+                | ((long) summary.getLateCount() << LATE_SHIFT)
+                | ((long) summary.getAbsentCount() << ABSENT_SHIFT);
+        recording(() -> counters.putIfAbsent(header.getId(), new ExamCounter(header, summary.getTotalStudents(), counts)));
+    }
+
+    /**
+     * Count a newly recorded attendance (call after the insert commits, inside recording())
+     * @param examId - exam ID
+     * @param status - attendance status
+     * @return version of this change, or 0 if nothing was counted
+     */
+    public long recordMarked(Long examId, String status) {
+        int shift = shiftFor(status);
+        ExamCounter counter = counters.get(examId);
+        if (counter != null && shift >= 0) {
+            updates.increment();
+            return counter.add(1L << shift, versions);
+        }
+        return 0L;
+    }
+
+    /**
+     * Move one attendance from its old status to the new one (call after the update commits, inside recording())
+     * @param examId - exam ID
+     * @param oldStatus - status before the change
+     * @param newStatus - status after the change
+     * @return version of this change, or 0 if no count changed
+     */
+    public long recordStatusChange(Long examId, String oldStatus, String newStatus) {
+        ExamCounter counter = counters.get(examId);
+        if (counter == null) {
+            return 0L;
+        }
+        int oldShift = shiftFor(oldStatus);
+        int newShift = shiftFor(newStatus);
+        long delta = (newShift >= 0 ? 1L << newShift : 0L) - (oldShift >= 0 ? 1L << oldShift : 0L);
+        if (delta == 0) {
+            return 0L;
+        }
+        updates.increment();
+        return counter.add(delta, versions);
+    }
+
+    /**
+     * Build a summary from the counters
+     * @param examId - exam ID
+     * @return summary, or null if this exam is not being counted
+     */
+    public AttendanceSummary getSummary(Long examId) {
+        ExamCounter counter = loaded ? counters.get(examId) : null;
+        if (counter == null) {
+            return null;
+        }
+        summariesServed.increment();
+        return counter.toSummary();
+    }
+
+    /**
+     * Build a summary together with the version of the last change it includes
+     * @param examId - exam ID
+     * @return snapshot, or null if this exam is not being counted
+     */
+    public Snapshot getSnapshot(Long examId) {
+        ExamCounter counter = loaded ? counters.get(examId) : null;
+        if (counter == null) {
+            return null;
+        }
+        summariesServed.increment();
+        return counter.snapshot();
+    }
+
+    /**
+     * Build summaries for every counted exam on a date
+     * @param examDate - the exam date
+     * @return summaries in start time order, or null if the counters are not loaded yet
+     */
+    public List<AttendanceSummary> getSummariesForDate(LocalDate examDate) {
+        if (!loaded) {
+            return null;
+        }
+        List<ExamCounter> matching = new ArrayList<>();
+        for (ExamCounter counter : counters.values()) {
+            if (examDate.equals(counter.examDate)) {
+                matching.add(counter);
+            }
+        }
+        matching.sort(Comparator.comparing((ExamCounter counter) -> counter.startTime,
+                        Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(counter -> counter.examId));
+
+        List<AttendanceSummary> summaries = new ArrayList<>(matching.size());
+        for (ExamCounter counter : matching) {
+            summaries.add(counter.toSummary());
+        }
+        summariesServed.add(summaries.size());
+        return summaries;
+    }
+
+    /**
+     * Counter statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("loaded", loaded);
+        metrics.put("exams", counters.size());
+        metrics.put("summariesServed", summariesServed.sum());
+        metrics.put("updates", updates.sum());
+        metrics.put("lastLoadMillis", lastLoadMillis);
+        return metrics;
+    }
+
+    private static int shiftFor(String status) {
+        if ("PRESENT".equals(status)) {
+            return PRESENT_SHIFT;
+        } else if ("LATE".equals(status)) {
+            return LATE_SHIFT;
+        } else if ("ABSENT".equals(status)) {
+            return ABSENT_SHIFT;
+        }
+        return -1;
+    }
+
+    /**
+     * Course details, roster size and packed status counts for one exam
+     */
+    private static class ExamCounter {
+        private final Long examId;
+        private final String courseCode;
+        private final String courseName;
+        private final LocalDate examDate;
+        private final LocalTime startTime;
+        private final int rosterSize;
+        private final AtomicLong counts;
+        private long version; // guarded by this
+
+        ExamCounter(ExamRepository.ExamHeader header, int rosterSize, long counts) {
+            this(header.getId(), header.getCourseCode(), header.getCourseName(),
+                    header.getExamDate(), header.getStartTime(), rosterSize, counts);
+        }
+
+        ExamCounter(Long examId, String courseCode, String courseName, LocalDate examDate,
+                    LocalTime startTime, int rosterSize, long counts) {
+            this.examId = examId;
+            this.courseCode = courseCode;
+            this.courseName = courseName;
+            this.examDate = examDate;
+            this.startTime = startTime;
+            this.rosterSize = rosterSize;
+            this.counts = new AtomicLong(counts);
+        }
+
+        /**
+         * Apply a change and stamp it, atomically with respect to snapshot()
+         */
+        synchronized long add(long delta, AtomicLong versions) {
+            counts.addAndGet(delta);
+            version = versions.incrementAndGet();
+            return version;
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(toSummary(), version);
+        }
+
+        AttendanceSummary toSummary() {
+            long packed = counts.get();
+            return new AttendanceSummary(examId, courseCode, courseName, rosterSize,
+                    (int) ((packed >>> PRESENT_SHIFT) & COUNT_MASK),
+                    (int) ((packed >>> ABSENT_SHIFT) & COUNT_MASK),
+                    (int) ((packed >>> LATE_SHIFT) & COUNT_MASK));
+        }
+    }
+
+    /**
+     * A summary and the version of the last counter change it includes
+     * (0 = unknown, e.g. computed in the database)
+     */
+    public static class Snapshot {
+        private final AttendanceSummary summary;
+        private final long version;
+
+        public Snapshot(AttendanceSummary summary, long version) {
+            this.summary = summary;
+            this.version = version;
+        }
+
+        public AttendanceSummary getSummary() { return summary; }
+        public long getVersion() { return version; }
+    }
+}
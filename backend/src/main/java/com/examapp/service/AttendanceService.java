@@ -1,18 +1,37 @@
 package com.examapp.service;
 
+import com.examapp.dto.AttendanceBatchEntry;
 import com.examapp.dto.AttendanceRequest;
 import com.examapp.dto.AttendanceSummary;
 import com.examapp.model.Attendance;
+import com.examapp.model.BarcodeScan;
 import com.examapp.model.Exam;
 import com.examapp.model.Student;
 import com.examapp.repository.AttendanceRepository;
+import com.examapp.repository.BarcodeScanRepository;
 import com.examapp.repository.ExamRepository;
 import com.examapp.repository.StudentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * AttendanceService - handles attendance tracking and reporting.
@@ -35,6 +54,26 @@ public class AttendanceService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @Autowired
+    private BarcodeScanRepository barcodeScanRepository;
+
+    @Autowired
+    private ScanAuditWriter scanAuditWriter;
+
+    @Autowired
+    private AttendanceCounters attendanceCounters;
+
+    @Autowired
+    private ExamEventBroadcaster eventBroadcaster;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static final Set<String> VALID_STATUSES = Set.of("PRESENT", "ABSENT", "LATE");
+
     /**
      * Mark student attendance for an exam
      * @param request - attendance details (examId, studentId, status, method)
@@ -64,7 +103,12 @@ public class AttendanceService {
                 request.getMethod()
         );
 
-        Attendance savedAttendance = attendanceRepository.save(attendance);
+        Attendance savedAttendance = attendanceCounters.recording(() -> {
+            Attendance saved = attendanceRepository.save(attendance);
+            long version = attendanceCounters.recordMarked(exam.getId(), saved.getStatus());
+            eventBroadcaster.publishAttendanceMarked(saved, version);
+            return saved;
+        });
 
         // NEW: Send notification email to student (if they have email)
         if (student.getEmail() != null && !student.getEmail().isEmpty()) {
@@ -74,6 +118,184 @@ public class AttendanceService {
         return savedAttendance;
     }
 
+    /**
+     * Mark attendance for many records at once (offline sync)
+     *
+     * Exams, students and already-marked pairs are loaded with one query each
+     * BEFORE the write transaction (SQLite: see scanAndMarkAttendance). Every
+     * record gets its own outcome; the accepted ones are inserted together in
+     * one transaction (JDBC batching), then their emails are queued in the
+     * outbox in one more, so the request does not wait for SMTP.
+     *
+     * @param records - attendance records in the order they were marked
+     * @param markedBy - username of invigilator syncing the records
+     * @return one result per record, in request order
+     */
+    public List<BatchRecordResult> markAttendanceBatch(List<AttendanceBatchEntry> records, String markedBy) {
+        Set<Long> examIds = records.stream()
+                .map(AttendanceBatchEntry::getExamId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> studentIds = records.stream()
+                .map(AttendanceBatchEntry::getStudentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Exam> examsById = examRepository.findAllById(examIds).stream()
+                .collect(Collectors.toMap(Exam::getId, Function.identity()));
+        Map<Long, Student> studentsById = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        Set<String> marked = new HashSet<>();
+        if (!examIds.isEmpty() && !studentIds.isEmpty()) {
+            for (AttendanceRepository.MarkedPair pair : attendanceRepository.findMarkedPairs(examIds, studentIds)) {
+                marked.add(pair.getExamId() + ":" + pair.getStudentId());
+            }
+        }
+
+        List<BatchRecordResult> results = new ArrayList<>(records.size());
+        List<Attendance> toSave = new ArrayList<>();
+        List<BatchRecordResult> accepted = new ArrayList<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            AttendanceBatchEntry record = records.get(i);
+            BatchRecordResult result = new BatchRecordResult();
+            result.setIndex(i);
+            result.setExamId(record.getExamId());
+            result.setStudentId(record.getStudentId());
+            results.add(result);
+
+            String status = record.getStatus() != null ? record.getStatus().toUpperCase() : "PRESENT";
+            Exam exam = record.getExamId() != null ? examsById.get(record.getExamId()) : null;
+            Student student = record.getStudentId() != null ? studentsById.get(record.getStudentId()) : null;
+
+            if (exam == null) {
+                result.reject("EXAM_NOT_FOUND", "Exam not found");
+            } else if (student == null) {
+                result.reject("STUDENT_NOT_FOUND", "Student not found");
+            } else if (!VALID_STATUSES.contains(status)) {
+                result.reject("INVALID_STATUS", "Status must be PRESENT, ABSENT or LATE");
+            } else if (!marked.add(exam.getId() + ":" + student.getId())) {
+                // Already in the database, or earlier in this batch
+                result.reject("DUPLICATE", "Attendance already marked for this student");
+            } else {
+                LocalDateTime markedAt = record.getClientTimestamp() != null
+                        ? LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getClientTimestamp()), ZoneId.systemDefault())
+                        : LocalDateTime.now();
+                toSave.add(new Attendance(exam, student, status, markedAt, markedBy,
+                        record.getMethod() != null ? record.getMethod() : "MANUAL"));
+                accepted.add(result);
+            }
+        }
+
+        if (!toSave.isEmpty()) {
+            List<Attendance> saved = attendanceCounters.recording(() -> {
+                List<Attendance> inserted = new TransactionTemplate(transactionManager)
+                        .execute(tx -> attendanceRepository.saveAll(toSave));
+                for (Attendance attendance : inserted) {
+                    long version = attendanceCounters.recordMarked(attendance.getExam().getId(), attendance.getStatus());
+                    eventBroadcaster.publishAttendanceMarked(attendance, version);
+                }
+                return inserted;
+            });
+            for (int i = 0; i < saved.size(); i++) {
+                accepted.get(i).setOutcome("RECORDED");
+                accepted.get(i).setAttendanceId(saved.get(i).getId());
+            }
+            emailService.notifyAttendanceMarked(saved);
+        }
+
+        System.out.println("✅ Attendance batch from " + markedBy + ": " + toSave.size() + " recorded, "
+                + (records.size() - toSave.size()) + " rejected");
+        return results;
+    }
+
+    /**
+     * Scan a student ID card and mark attendance in one step
+     *
+     * Validates the barcode (rate limit, student, enrollment), then records the
+     * attendance and writes the scan audit entry in ONE transaction, reusing
+     * the student and exam already loaded by validation. A rejected scan's
+     * audit entry goes to the ScanAuditWriter queue instead, so the request
+     * never waits on (or fails because of) the audit write.
+     *
+     * All reads happen before the transaction starts: on SQLite an open read
+     * would block Hibernate's id generator, which writes on its own connection.
+     *
+     * @param scannedBarcode - the barcode value (student ID)
+     * @param examId - exam ID
+     * @param status - attendance status (defaults to PRESENT)
+     * @param markedBy - username of invigilator scanning
+     * @return scan result with the saved attendance record if recorded
+     *         (INVALID_STATUS, without scanning, if the status is not PRESENT/ABSENT/LATE)
+     */
+    public ScanAttendanceResult scanAndMarkAttendance(String scannedBarcode, Long examId,
+                                                      String status, String markedBy) {
+        ScanAttendanceResult result = new ScanAttendanceResult();
+        result.setScannedBarcode(scannedBarcode);
+
+        String attendanceStatus = status != null ? status.toUpperCase() : "PRESENT";
+        if (!VALID_STATUSES.contains(attendanceStatus)) {
+            // A bad request, not a scan - no rate limit slot, no audit entry
+            result.setTimestamp(LocalDateTime.now());
+            result.setValidationStatus("INVALID_STATUS");
+            result.setErrorMessage("Status must be PRESENT, ABSENT or LATE");
+            return result;
+        }
+
+        BarcodeService.BarcodeValidationResult validation =
+                barcodeService.checkBarcodeScan(scannedBarcode, examId, markedBy);
+        result.setTimestamp(validation.getTimestamp());
+
+        if (validation.isValid()
+                && attendanceRepository.existsByExamAndStudent(validation.getExam(), validation.getStudent())) {
+            validation.reject("DUPLICATE", "Attendance already marked for this student");
+        }
+
+        BarcodeScan scanLog = barcodeService.buildScanLog(validation, examId, markedBy);
+        result.setValidationStatus(validation.getValidationStatus());
+
+        if (!validation.isValid()) {
+            // Nothing to commit with it: queued like any other rejected scan
+            scanAuditWriter.submit(scanLog, examId);
+            eventBroadcaster.publishScan(examId, scannedBarcode, validation.getValidationStatus());
+            result.setErrorMessage(validation.getErrorMessage());
+            return result;
+        }
+
+        Student student = validation.getStudent();
+        Exam exam = validation.getExam();
+
+        Attendance attendance = new Attendance(
+                exam,
+                student,
+                attendanceStatus,
+                LocalDateTime.now(),
+                markedBy,
+                "SCANNED"
+        );
+
+        // Attendance and its audit entry commit together
+        Attendance savedAttendance = attendanceCounters.recording(() -> {
+            Attendance inserted = new TransactionTemplate(transactionManager).execute(tx -> {
+                Attendance saved = attendanceRepository.save(attendance);
+                barcodeScanRepository.save(scanLog);
+                return saved;
+            });
+            long version = attendanceCounters.recordMarked(exam.getId(), inserted.getStatus());
+            eventBroadcaster.publishAttendanceMarked(inserted, version);
+            return inserted;
+        });
+
+        if (student.getEmail() != null && !student.getEmail().isEmpty()) {
+            emailService.notifyAttendanceMarked(student.getEmail(), exam.getId());
+        }
+
+        result.setRecorded(true);
+        result.setStudent(student);
+        result.setAttendance(savedAttendance);
+        return result;
+    }
+
     /**
      * Get all attendance records for an exam
      * @param examId - exam ID
@@ -87,33 +309,116 @@ public class AttendanceService {
 
     /**
      * Generate attendance summary for an exam
+     * Served from the live counters; the database is only used before they
+     * have loaded or for an exam they do not know yet
      * @param examId - exam ID
      * @return attendance summary with statistics
      */
     public AttendanceSummary getAttendanceSummary(Long examId) {
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new RuntimeException("Exam not found"));
+        AttendanceSummary live = attendanceCounters.getSummary(examId);
+        if (live != null) {
+            return live;
+        }
+        List<AttendanceSummary> summaries = summarize(examRepository.findHeadersByIdIn(List.of(examId)));
+        if (summaries.isEmpty()) {
+            throw new RuntimeException("Exam not found");
+        }
+        return summaries.get(0);
+    }
 
-        // Count students by status
-        long presentCount = attendanceRepository.countByExamAndStatus(exam, "PRESENT");
-        long absentCount = attendanceRepository.countByExamAndStatus(exam, "ABSENT");
-        long lateCount = attendanceRepository.countByExamAndStatus(exam, "LATE");
-
-        int totalStudents = exam.getStudents().size();
-
-        return new AttendanceSummary(
-                exam.getId(),
-                exam.getCourseCode(),
-                exam.getCourseName(),
-                totalStudents,
-                (int) presentCount,
-                (int) absentCount,
-                (int) lateCount
-        );
+    /**
+     * Summary for a live event stream, with the counter version it includes
+     * (version 0 when it had to come from the database)
+     * @param examId - exam ID
+     */
+    public AttendanceCounters.Snapshot getAttendanceSnapshot(Long examId) {
+        AttendanceCounters.Snapshot live = attendanceCounters.getSnapshot(examId);
+        return live != null ? live : new AttendanceCounters.Snapshot(getAttendanceSummary(examId), 0L);
+    }
+
+    /**
+     * Attendance summaries for several exams (unknown IDs are skipped)
+     * @param examIds - exam IDs
+     * @return one summary per exam, ordered by exam ID
+     */
+    public List<AttendanceSummary> getAttendanceSummaries(Collection<Long> examIds) {
+        List<AttendanceSummary> summaries = new ArrayList<>();
+        List<Long> notCounted = new ArrayList<>();
+        for (Long examId : new TreeSet<>(examIds)) {
+            AttendanceSummary live = attendanceCounters.getSummary(examId);
+            if (live != null) {
+                summaries.add(live);
+            } else {
+                notCounted.add(examId);
+            }
+        }
+        if (!notCounted.isEmpty()) {
+            summaries.addAll(summarize(examRepository.findHeadersByIdIn(notCounted)));
+            summaries.sort(Comparator.comparing(AttendanceSummary::getExamId));
+        }
+        return summaries;
+    }
+
+    /**
+     * Attendance summaries for every exam on a date (e.g., today's dashboard)
+     * @param examDate - the exam date
+     * @return one summary per exam, in start time order
+     */
+    public List<AttendanceSummary> getAttendanceSummariesForDate(LocalDate examDate) {
+        List<AttendanceSummary> live = attendanceCounters.getSummariesForDate(examDate);
+        if (live != null) {
+            return live;
+        }
+        return summarize(examRepository.findHeadersByExamDate(examDate));
+    }
+
+    /**
+     * Build summaries with one GROUP BY over attendance and one COUNT over
+     * exam_students, however many exams there are
+     */
+    private List<AttendanceSummary> summarize(List<ExamRepository.ExamHeader> exams) {
+        List<AttendanceSummary> summaries = new ArrayList<>(exams.size());
+        if (exams.isEmpty()) {
+            return summaries;
+        }
+        List<Long> examIds = exams.stream().map(ExamRepository.ExamHeader::getId).collect(Collectors.toList());
+
+        Map<Long, Map<String, Long>> countsByExam = new HashMap<>();
+        for (AttendanceRepository.StatusCount row : attendanceRepository.countByStatusForExams(examIds)) {
+            countsByExam.computeIfAbsent(row.getExamId(), id -> new HashMap<>()).put(row.getStatus(), row.getCount());
+        }
+        Map<Long, Long> rosterSizes = new HashMap<>();
+        for (ExamRepository.RosterCount row : examRepository.countEnrolledStudents(examIds)) {
+            rosterSizes.put(row.getExamId(), row.getCount());
+        }
+
+        for (ExamRepository.ExamHeader exam : exams) {
+            Map<String, Long> counts = countsByExam.getOrDefault(exam.getId(), Map.of());
+            AttendanceSummary summary = new AttendanceSummary(
+                    exam.getId(),
+                    exam.getCourseCode(),
+                    exam.getCourseName(),
+                    rosterSizes.getOrDefault(exam.getId(), 0L).intValue(),
+                    counts.getOrDefault("PRESENT", 0L).intValue(),
+                    counts.getOrDefault("ABSENT", 0L).intValue(),
+                    counts.getOrDefault("LATE", 0L).intValue()
+            );
+            summaries.add(summary);
+            if (attendanceCounters.isLoaded()) {
+                // Exam created after the counters loaded - count it from now on
+                attendanceCounters.track(exam, summary);
+            }
+        }
+        return summaries;
     }
 
     /**
      * Update attendance status (if marking was wrong)
+     *
+     * The row only changes if it still has the status just read, so two
+     * concurrent updates each move the live counts from the status they
+     * actually replaced; the loser re-reads and tries again.
+     *
      * @param attendanceId - attendance record ID
      * @param newStatus - new status (PRESENT/ABSENT/LATE)
      * @return updated attendance record
@@ -121,9 +426,28 @@ public class AttendanceService {
     public Attendance updateAttendanceStatus(Long attendanceId, String newStatus) {
         Attendance attendance = attendanceRepository.findById(attendanceId)
                 .orElseThrow(() -> new RuntimeException("Attendance record not found"));
+        Long examId = attendance.getExam().getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
 
-        attendance.setStatus(newStatus);
-        return attendanceRepository.save(attendance);
+        while (true) {
+            // Read outside the write transaction (SQLite: see scanAndMarkAttendance)
+            String oldStatus = attendanceRepository.findStatusById(attendanceId)
+                    .orElseThrow(() -> new RuntimeException("Attendance record not found"));
+            boolean updated = attendanceCounters.recording(() -> {
+                Integer changed = transaction.execute(tx ->
+                        attendanceRepository.updateStatusIfUnchanged(attendanceId, oldStatus, newStatus));
+                if (changed == null || changed == 0) {
+                    return false;
+                }
+                attendance.setStatus(newStatus);
+                long version = attendanceCounters.recordStatusChange(examId, oldStatus, newStatus);
+                eventBroadcaster.publishStatusChanged(attendance, oldStatus, version);
+                return true;
+            });
+            if (updated) {
+                return attendance;
+            }
+        }
     }
 
     /**
@@ -134,4 +458,75 @@ public class AttendanceService {
     public List<Attendance> getAttendanceByInvigilator(String username) {
         return attendanceRepository.findByMarkedBy(username);
     }
-}
\ No newline at end of file
+
+    /**
+     * Outcome of one record in a batch upload
+     */
+    public static class BatchRecordResult {
+        private int index;
+        private Long examId;
+        private Long studentId;
+        private String outcome; // RECORDED, DUPLICATE, EXAM_NOT_FOUND, STUDENT_NOT_FOUND, INVALID_STATUS
+        private Long attendanceId;
+        private String errorMessage;
+
+        void reject(String outcome, String errorMessage) {
+            this.outcome = outcome;
+            this.errorMessage = errorMessage;
+        }
+
+        // Getters and setters
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public Long getExamId() { return examId; }
+        public void setExamId(Long examId) { this.examId = examId; }
+
+        public Long getStudentId() { return studentId; }
+        public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+        public String getOutcome() { return outcome; }
+        public void setOutcome(String outcome) { this.outcome = outcome; }
+
+        public Long getAttendanceId() { return attendanceId; }
+        public void setAttendanceId(Long attendanceId) { this.attendanceId = attendanceId; }
+
+        public String getErrorMessage() { return errorMessage; }
+        public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    }
+
+    /**
+     * Inner class for scan-and-mark results
+     */
+    public static class ScanAttendanceResult {
+        private String scannedBarcode;
+        private boolean recorded;
+        private String validationStatus; // SUCCESS, DUPLICATE, or a barcode validation failure
+        private String errorMessage;
+        private Student student;
+        private Attendance attendance;
+        private LocalDateTime timestamp;
+
+        // Getters and setters
+        public String getScannedBarcode() { return scannedBarcode; }
+        public void setScannedBarcode(String scannedBarcode) { this.scannedBarcode = scannedBarcode; }
+
+        public boolean isRecorded() { return recorded; }
+        public void setRecorded(boolean recorded) { this.recorded = recorded; }
+
+        public String getValidationStatus() { return validationStatus; }
+        public void setValidationStatus(String validationStatus) { this.validationStatus = validationStatus; }
+
+        public String getErrorMessage() { return errorMessage; }
+        public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+        public Student getStudent() { return student; }
+        public void setStudent(Student student) { this.student = student; }
+
+        public Attendance getAttendance() { return attendance; }
+        public void setAttendance(Attendance attendance) { this.attendance = attendance; }
+
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    }
+}
@@ -0,0 +1,249 @@
+package com.examapp.service;
+
+import com.examapp.dto.BarcodeExportRequest;
+import com.examapp.repository.ExamRepository;
+import com.examapp.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * BarcodeExportService - Streams a ZIP of barcode images (for print shops)
+ *
+ * Students are selected by program, exam or an explicit ID list. Images are
+ * read from the barcode pack (or rendered on the barcode render pool) a few at
+ * a time and written to the ZIP in order as soon as they are ready, so memory
+ * use is bounded by the in-flight window - not by the size of the export.
+ *
+ * PNGs are already compressed, so entries are STORED (no second deflate).
+ */
+@Service
+public class BarcodeExportService {
+
+    private static final int MAX_EXPORT_STUDENTS = 20_000;
+
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamEnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private StudentBatchResolver studentBatchResolver;
+
+    @Autowired
+    @Qualifier("barcodeRenderExecutor")
+    private ThreadPoolExecutor renderExecutor;
+
+    @Value("${barcode.export.max-in-flight:0}")
+    private int maxInFlight;
+
+    /**
+     * Work out which students an export request covers
+     * @param request - exactly one of program, examId or studentIds
+     * @return selected (existing) student IDs plus any unknown IDs from an explicit list
+     */
+    public Selection resolveSelection(BarcodeExportRequest request) {
+        int selectors = (request.getProgram() != null ? 1 : 0)
+                + (request.getExamId() != null ? 1 : 0)
+                + (request.getStudentIds() != null ? 1 : 0);
+        if (selectors != 1) {
+            throw new RuntimeException("Specify exactly one of program, examId or studentIds");
+        }
+
+        Selection selection = new Selection();
+        if (request.getProgram() != null) {
+            selection.name = request.getProgram().replaceAll("[^A-Za-z0-9]+", "-");
+            selection.studentIds = studentRepository.findStudentIdsByProgram(request.getProgram());
+        } else if (request.getExamId() != null) {
+            if (!examRepository.existsById(request.getExamId())) {
+                throw new RuntimeException("Exam not found");
+            }
+            selection.name = "exam-" + request.getExamId();
+            selection.studentIds = new ArrayList<>(enrollmentIndex.getEnrolledStudentIds(request.getExamId()));
+            selection.studentIds.sort(null);
+        } else {
+            selection.name = "selection";
+            Set<String> requested = new LinkedHashSet<>();
+            for (String studentId : request.getStudentIds()) {
+                if (studentId != null && !studentId.isBlank()) {
+                    requested.add(studentId.trim());
+                }
+            }
+            Set<String> existing = studentBatchResolver.resolve(requested).keySet();
+            for (String studentId : requested) {
+                (existing.contains(studentId) ? selection.studentIds : selection.missing).add(studentId);
+            }
+        }
+
+        if (selection.studentIds.size() > MAX_EXPORT_STUDENTS) {
+            throw new RuntimeException("Too many students for one export (max " + MAX_EXPORT_STUDENTS + ")");
+        }
+        return selection;
+    }
+
+    /**
+     * Write the ZIP archive for a selection
+     * @param selection - from resolveSelection
+     * @param format - "png" or "svg"
+     * @param out - response stream (not closed)
+     */
+    public void writeZip(Selection selection, String format, OutputStream out) throws IOException {
+        boolean svg = "svg".equalsIgnoreCase(format);
+        int window = maxInFlight > 0 ? maxInFlight : renderExecutor.getMaximumPoolSize() * 4;
+        long started = System.currentTimeMillis();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Deque<CompletableFuture<ExportItem>> inFlight = new ArrayDeque<>(window);
+        Iterator<String> pending = selection.studentIds.iterator();
+        List<String> errors = new ArrayList<>();
+        byte[] chunk = new byte[8192];
+        int written = 0;
+
+        try {
+            while (inFlight.size() < window && pending.hasNext()) {
+                inFlight.add(load(pending.next(), svg));
+            }
+            while (!inFlight.isEmpty()) {
+                ExportItem item = inFlight.poll().get();
+                if (pending.hasNext()) {
+                    inFlight.add(load(pending.next(), svg));
+                }
+
+                if (item.error != null) {
+                    errors.add(item.studentId + ": " + item.error);
+                    continue;
+                }
+                writeStoredEntry(zip, item, chunk);
+                written++;
+            }
+
+            if (!selection.missing.isEmpty()) {
+                writeTextEntry(zip, "MISSING.txt", "Unknown student IDs (no barcode exported):\n",
+                        selection.missing);
+            }
+            if (!errors.isEmpty()) {
+                writeTextEntry(zip, "ERRORS.txt", "Barcodes that failed to render:\n", errors);
+            }
+            zip.finish();
+            zip.flush();
+            System.out.println("✅ Barcode export " + selection.name + ": " + written + " images in "
+                    + (System.currentTimeMillis() - started) + " ms");
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Barcode export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Barcode export failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            // Client gone or failure - don't keep rendering for nobody
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Read the stored image (or render it) and checksum it, on the render pool
+     */
+    private CompletableFuture<ExportItem> load(String studentId, boolean svg) {
+        return CompletableFuture.supplyAsync(() -> {
+            ExportItem item = new ExportItem(studentId, studentId + (svg ? ".svg" : ".png"));
+            try {
+                ByteBuffer data = svg ? null : barcodeService.getBarcodeFile(studentId);
+                if (data == null) {
+                    data = ByteBuffer.wrap(svg
+                            ? barcodeService.generateBarcodeSvg(studentId)
+                            : barcodeService.generateBarcodeBytes(studentId));
+                }
+                CRC32 crc = new CRC32();
+                crc.update(data.duplicate());
+                item.data = data;
+                item.crc = crc.getValue();
+            } catch (Exception e) {
+                item.error = e.getMessage();
+            }
+            return item;
+        }, renderExecutor);
+    }
+
+    private void writeStoredEntry(ZipOutputStream zip, ExportItem item, byte[] chunk) throws IOException {
+        ByteBuffer data = item.data.duplicate();
+        ZipEntry entry = new ZipEntry(item.name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.remaining());
+        entry.setCompressedSize(data.remaining());
+        entry.setCrc(item.crc);
+
+        zip.putNextEntry(entry);
+        if (data.hasArray()) {
+            zip.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else {
+            // Memory-mapped pack slice - copy through a small reusable buffer
+            while (data.hasRemaining()) {
+                int length = Math.min(chunk.length, data.remaining());
+                data.get(chunk, 0, length);
+                zip.write(chunk, 0, length);
+            }
+        }
+        zip.closeEntry();
+    }
+
+    private void writeTextEntry(ZipOutputStream zip, String name, String header, List<String> lines) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write((header + String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    /**
+     * Students covered by one export
+     */
+    public static class Selection {
+        private String name;
+        private List<String> studentIds = new ArrayList<>();
+        private final List<String> missing = new ArrayList<>();
+
+        public String getName() { return name; }
+        public List<String> getStudentIds() { return studentIds; }
+        public List<String> getMissing() { return missing; }
+    }
+
+    /**
+     * One image ready to be written to the archive
+     */
+    private static class ExportItem {
+        private final String studentId;
+        private final String name;
+        private ByteBuffer data;
+        private long crc;
+        private String error;
+
+        ExportItem(String studentId, String name) {
+            this.studentId = studentId;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.examapp.service;
+
+import com.google.zxing.WriterException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BarcodeImageCache - Byte-budgeted LRU cache of encoded barcode images
+ *
+ * A barcode only depends on the student ID and the render parameters, so the
+ * encoded PNG never changes once rendered. The cache is keyed by exactly
+ * those inputs (see key()) and bounded by total image bytes, not entry count.
+ *
+ * Cached arrays are shared between callers - never modify a returned byte[].
+ */
+@Component
+public class BarcodeImageCache {
+
+    @Value("${barcode.cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    private LinkedHashMap<String, byte[]> entries;
+    private long currentBytes;
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong evictedBytes = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        entries = new LinkedHashMap<>(256, 0.75f, true);
+    }
+
+    /**
+     * Build the cache key for one rendered image
+     */
+    public static String key(String studentId, int width, int height, int margin, String format) {
+        return studentId + "|" + width + "x" + height + "|m" + margin + "|" + format;
+    }
+
+    /**
+     * Return the cached image for the key, rendering (and caching) it on a miss
+     * @param key - from key()
+     * @param renderer - produces the encoded image on a miss
+     */
+    public byte[] getOrRender(String key, Renderer renderer) throws WriterException, IOException {
+        synchronized (entries) {
+            byte[] cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        // Render outside the lock so other lookups are not blocked
+        misses.incrementAndGet();
+        byte[] image = renderer.render();
+        put(key, image);
+        return image;
+    }
+
+    private void put(String key, byte[] image) {
+        if (image.length > maxBytes) {
+            return; // Would evict everything else - just don't cache it
+        }
+        synchronized (entries) {
+            byte[] previous = entries.put(key, image);
+            currentBytes += image.length - (previous == null ? 0 : previous.length);
+
+            var iterator = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, byte[]> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                currentBytes -= eldest.getValue().length;
+                evictions.incrementAndGet();
+                evictedBytes.addAndGet(eldest.getValue().length);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drop every cached image (e.g., after changing render settings)
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            currentBytes = 0;
+        }
+    }
+
+    /**
+     * Cache statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        long total = hits.get() + misses.get();
+
+        Map<String, Object> metrics = new HashMap<>();
+        synchronized (entries) {
+            metrics.put("entries", entries.size());
+            metrics.put("bytes", currentBytes);
+        }
+        metrics.put("maxBytes", maxBytes);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("hitRatio", total > 0 ? (double) hits.get() / total : 0.0);
+        metrics.put("evictions", evictions.get());
+        metrics.put("evictedBytes", evictedBytes.get());
+        return metrics;
+    }
+
+    /**
+     * Renders one image on a cache miss
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        byte[] render() throws WriterException, IOException;
+    }
+}
@@ -0,0 +1,505 @@
+package com.examapp.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * BarcodePackStore - All stored barcode images in ONE append-only pack file
+ *
+ * Replaces one barcodes/<studentId>.png per student (tens of thousands of tiny
+ * files, a stat + open per request). Layout of each record:
+ *
+ *   [magic int][key length int][data length int][CRC32 of key+data int][key UTF-8][data]
+ *
+ * - An in-memory index maps studentId -> data offset/length; the latest record wins
+ * - Reads are slices of a read-only memory mapping (no copy, no syscall per read),
+ *   or a file location for sending the bytes straight from the file (sendfile)
+ * - On startup the index is rebuilt by scanning the pack; a torn or corrupt tail
+ *   (crash during append) fails the CRC check and is truncated away
+ * - Compaction copies live records to the next generation file
+ *   (barcodes-<n+1>.pack, written as .tmp then atomically renamed), so an old
+ *   file that is still mapped never has to be modified in place; the old file
+ *   is only deleted at the NEXT compaction (or startup), so a location handed
+ *   out just before a compaction stays readable
+ * - Legacy barcodes/*.png files are imported once and then removed
+ */
+@Component
+public class BarcodePackStore {
+
+    private static final int MAGIC = 0x42435031; // "BCP1"
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_KEY_BYTES = 1024;
+    private static final int MAX_DATA_BYTES = 16 * 1024 * 1024;
+    private static final String FILE_PREFIX = "barcodes-";
+    private static final String FILE_SUFFIX = ".pack";
+
+    @Value("${barcode.pack.dir:barcodes/}")
+    private String directory;
+
+    @Value("${barcode.pack.compact-min-dead-bytes:1048576}")
+    private long compactMinDeadBytes;
+
+    @Value("${barcode.pack.import-legacy:true}")
+    private boolean importLegacy;
+
+    private Path dir;
+    private volatile Generation current;
+    private Path retired; // previous generation, deleted at the next compaction
+
+    // Metrics
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong remaps = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private volatile long truncatedBytes;
+    private volatile long lastRebuildMillis;
+
+    @PostConstruct
+    public void open() throws IOException {
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+
+        // Pick the newest generation; older ones and unfinished compactions are leftovers
+        long newest = 0;
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(FILE_SUFFIX)) {
+                    long number = generationNumber(name);
+                    if (number > newest) {
+                        if (newest > 0) {
+                            leftovers.add(packPath(newest));
+                        }
+                        newest = number;
+                    } else {
+                        leftovers.add(file);
+                    }
+                } else {
+                    leftovers.add(file);
+                }
+            }
+        }
+        for (Path leftover : leftovers) {
+            Files.deleteIfExists(leftover);
+        }
+
+        long started = System.currentTimeMillis();
+        current = openGeneration(newest > 0 ? newest : 1);
+        lastRebuildMillis = System.currentTimeMillis() - started;
+        System.out.println("✅ Barcode pack opened: " + current.path + " (" + current.index.size()
+                + " barcodes, index rebuilt in " + lastRebuildMillis + " ms)");
+
+        if (importLegacy) {
+            importLegacyPngs();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.channel.force(false);
+            current.channel.close();
+        }
+    }
+
+    /**
+     * Check if an image is stored for the key
+     */
+    public boolean contains(String key) {
+        return current.index.containsKey(key);
+    }
+
+    /**
+     * Get a stored image without copying it
+     * @param key - student ID
+     * @return read-only view of the image bytes, or null if not stored
+     */
+    public ByteBuffer get(String key) {
+        Generation generation = current;
+        Entry entry = generation.index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        reads.incrementAndGet();
+        return read(generation, entry);
+    }
+
+    /**
+     * Find where a stored image lives in the pack file
+     * @param key - student ID
+     * @return file and byte range of the image, or null if not stored
+     */
+    public Location locate(String key) {
+        Generation generation = current;
+        Entry entry = generation.index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        reads.incrementAndGet();
+        return new Location(generation.path, entry.dataOffset, entry.length);
+    }
+
+    /**
+     * Strong ETag for a stored image, derived from its content (computed once per record)
+     * @param key - student ID
+     * @return quoted ETag, or null if not stored
+     */
+    public String getETag(String key) {
+        Generation generation = current;
+        Entry entry = generation.index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        String etag = entry.etag;
+        if (etag == null) {
+            etag = contentTag(read(generation, entry));
+            entry.etag = etag;
+        }
+        return etag;
+    }
+
+    /**
+     * Content hash as a quoted strong ETag (first 128 bits of SHA-256, hex)
+     */
+    public static String contentTag(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data.duplicate());
+            byte[] hash = digest.digest();
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Append an image (replaces any earlier image for the same key)
+     * @param key - student ID
+     * @param data - image bytes
+     */
+    public synchronized void put(String key, byte[] data) throws IOException {
+        Generation generation = current;
+        Entry previous = generation.index.get(key);
+        Entry entry = append(generation, key, data);
+        generation.index.put(key, entry);
+        generation.liveBytes += entry.recordLength;
+        if (previous != null) {
+            generation.liveBytes -= previous.recordLength;
+            generation.deadBytes += previous.recordLength;
+        }
+        appends.incrementAndGet();
+
+        if (generation.deadBytes >= compactMinDeadBytes && generation.deadBytes > generation.liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Make appended records durable (e.g., after a bulk import)
+     */
+    public void sync() throws IOException {
+        current.channel.force(false);
+    }
+
+    /**
+     * Rewrite only the live records into the next generation file and switch to it
+     */
+    public synchronized void compact() throws IOException {
+        Generation old = current;
+        // Readers of the old generation keep using its mapping - make sure it covers every record
+        remap(old);
+
+        long nextNumber = old.number + 1;
+        Path tmp = dir.resolve(FILE_PREFIX + nextNumber + FILE_SUFFIX + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (Entry entry : old.index.values()) {
+                ByteBuffer record = old.mapped.slice((int) entry.recordOffset, entry.recordLength);
+                while (record.hasRemaining()) {
+                    position += out.write(record, position);
+                }
+            }
+            out.force(true);
+        }
+        Files.move(tmp, packPath(nextNumber), StandardCopyOption.ATOMIC_MOVE);
+
+        current = openGeneration(nextNumber);
+        old.channel.close();
+        if (retired != null) {
+            try {
+                Files.deleteIfExists(retired);
+            } catch (IOException e) {
+                // Still mapped (Windows) - removed on next startup instead
+                System.err.println("❌ Could not delete old barcode pack " + retired + ": " + e.getMessage());
+            }
+        }
+        retired = old.path;
+        compactions.incrementAndGet();
+        System.out.println("✅ Barcode pack compacted: " + old.path + " -> " + current.path
+                + " (" + current.index.size() + " barcodes)");
+    }
+
+    /**
+     * Pack statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Generation generation = current;
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("file", generation.path.toString());
+        metrics.put("generation", generation.number);
+        metrics.put("barcodes", generation.index.size());
+        metrics.put("fileBytes", generation.size);
+        metrics.put("liveBytes", generation.liveBytes);
+        metrics.put("deadBytes", generation.deadBytes);
+        metrics.put("reads", reads.get());
+        metrics.put("appends", appends.get());
+        metrics.put("remaps", remaps.get());
+        metrics.put("compactions", compactions.get());
+        metrics.put("truncatedBytes", truncatedBytes);
+        metrics.put("lastRebuildMillis", lastRebuildMillis);
+        return metrics;
+    }
+
+    private Generation openGeneration(long number) throws IOException {
+        Path path = packPath(number);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Generation generation = new Generation(number, path, channel);
+        rebuildIndex(generation);
+        remap(generation);
+        return generation;
+    }
+
+    /**
+     * Scan the pack from the start, indexing every valid record.
+     * Stops at the first torn/corrupt record and truncates the file there.
+     */
+    private void rebuildIndex(Generation generation) throws IOException {
+        long fileSize = generation.channel.size();
+        long position = 0;
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(generation.channel.position(0)), 64 * 1024));
+        try {
+            while (position + HEADER_BYTES <= fileSize) {
+                int magic = in.readInt();
+                int keyLength = in.readInt();
+                int dataLength = in.readInt();
+                int expectedCrc = in.readInt();
+                long recordLength = (long) HEADER_BYTES + keyLength + dataLength;
+                if (magic != MAGIC || keyLength <= 0 || keyLength > MAX_KEY_BYTES
+                        || dataLength < 0 || dataLength > MAX_DATA_BYTES || position + recordLength > fileSize) {
+                    break;
+                }
+
+                if (buffer.length < keyLength + dataLength) {
+                    buffer = new byte[keyLength + dataLength];
+                }
+                in.readFully(buffer, 0, keyLength + dataLength);
+                crc.reset();
+                crc.update(buffer, 0, keyLength + dataLength);
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+
+                String key = new String(buffer, 0, keyLength, StandardCharsets.UTF_8);
+                Entry entry = new Entry(position, position + HEADER_BYTES + keyLength, dataLength, (int) recordLength);
+                Entry previous = generation.index.put(key, entry);
+                generation.liveBytes += recordLength;
+                if (previous != null) {
+                    generation.liveBytes -= previous.recordLength;
+                    generation.deadBytes += previous.recordLength;
+                }
+                position += recordLength;
+            }
+        } catch (EOFException e) {
+            // Torn tail - handled below
+        }
+
+        if (position < fileSize) {
+            truncatedBytes += fileSize - position;
+            generation.channel.truncate(position);
+            generation.channel.force(true);
+            System.err.println("❌ Barcode pack " + generation.path + ": dropped " + (fileSize - position)
+                    + " bytes of incomplete/corrupt records");
+        }
+        generation.size = position;
+    }
+
+    private Entry append(Generation generation, String key, byte[] data) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length == 0 || keyBytes.length > MAX_KEY_BYTES || data.length > MAX_DATA_BYTES) {
+            throw new RuntimeException("Barcode record too large for pack: " + key);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(data);
+
+        int recordLength = HEADER_BYTES + keyBytes.length + data.length;
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.putInt(MAGIC).putInt(keyBytes.length).putInt(data.length).putInt((int) crc.getValue());
+        record.put(keyBytes).put(data).flip();
+
+        long offset = generation.size;
+        if (offset + recordLength > Integer.MAX_VALUE) {
+            throw new RuntimeException("Barcode pack is full (2 GB) - compact or archive it");
+        }
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += generation.channel.write(record, position);
+        }
+        generation.size = position;
+        return new Entry(offset, offset + HEADER_BYTES + keyBytes.length, data.length, recordLength);
+    }
+
+    private ByteBuffer read(Generation generation, Entry entry) {
+        MappedByteBuffer mapped = generation.mapped;
+        if (mapped == null || entry.dataOffset + entry.length > mapped.capacity()) {
+            mapped = remap(generation);
+        }
+        return mapped.slice((int) entry.dataOffset, entry.length);
+    }
+
+    /**
+     * Map the whole file again after it grew past the current mapping
+     */
+    private MappedByteBuffer remap(Generation generation) {
+        synchronized (generation) {
+            MappedByteBuffer mapped = generation.mapped;
+            if (mapped == null || mapped.capacity() < generation.size) {
+                try {
+                    mapped = generation.channel.map(FileChannel.MapMode.READ_ONLY, 0, generation.size);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to map barcode pack " + generation.path + ": " + e.getMessage(), e);
+                }
+                generation.mapped = mapped;
+                remaps.incrementAndGet();
+            }
+            return mapped;
+        }
+    }
+
+    private void importLegacyPngs() throws IOException {
+        List<Path> imported = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.png")) {
+            for (Path file : files) {
+                String studentId = file.getFileName().toString().replaceFirst("\\.png$", "");
+                if (!contains(studentId)) {
+                    put(studentId, Files.readAllBytes(file));
+                }
+                imported.add(file);
+            }
+        }
+        if (imported.isEmpty()) {
+            return;
+        }
+
+        // Only remove the PNGs once their copies are durable
+        sync();
+        for (Path file : imported) {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("✅ Imported " + imported.size() + " legacy barcode PNGs into " + current.path);
+    }
+
+    private Path packPath(long number) {
+        return dir.resolve(FILE_PREFIX + number + FILE_SUFFIX);
+    }
+
+    private static long generationNumber(String fileName) {
+        try {
+            return Long.parseLong(fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * One pack file and its index
+     */
+    private static class Generation {
+        private final long number;
+        private final Path path;
+        private final FileChannel channel;
+        private final Map<String, Entry> index = new ConcurrentHashMap<>();
+        private volatile long size;
+        private volatile MappedByteBuffer mapped;
+        private long liveBytes;
+        private long deadBytes;
+
+        Generation(long number, Path path, FileChannel channel) {
+            this.number = number;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * File and byte range of one stored image
+     */
+    public static class Location {
+        private final Path path;
+        private final long offset;
+        private final int length;
+
+        Location(Path path, long offset, int length) {
+            this.path = path;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public Path getPath() { return path; }
+        public long getOffset() { return offset; }
+        public int getLength() { return length; }
+    }
+
+    /**
+     * Location of one record in the pack
+     */
+    private static class Entry {
+        private final long recordOffset;
+        private final long dataOffset;
+        private final int length;
+        private final int recordLength;
+        private volatile String etag;
+
+        Entry(long recordOffset, long dataOffset, int length, int recordLength) {
+            this.recordOffset = recordOffset;
+            this.dataOffset = dataOffset;
+            this.length = length;
+            this.recordLength = recordLength;
+        }
+    }
+}
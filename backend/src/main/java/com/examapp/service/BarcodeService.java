@@ -1,38 +1,44 @@
 package com.examapp.service;
 
+import com.examapp.dto.BarcodeScanEntry;
 import com.examapp.model.BarcodeScan;
 import com.examapp.model.Exam;
 import com.examapp.model.Student;
 import com.examapp.repository.BarcodeScanRepository;
 import com.examapp.repository.ExamRepository;
-import com.examapp.repository.StudentRepository;
+import com.examapp.util.BarcodePngEncoder;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.oned.Code128Writer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * BarcodeService - Generates and validates barcodes for student IDs
  *
  * SECURITY ARCHITECTURE:
  * 1. Barcode contains ONLY student ID (e.g., "BCS25165336")
- * 2. When scanned, student data is fetched from database
+ * 2. When scanned, student data is resolved from the in-memory StudentDirectory
+ *    (database via StudentLookupCache until the directory has loaded)
  * 3. All scan attempts are logged for audit trail
  * 4. Rate limiting: Max 100 scans per minute per invigilator
  * 5. Validation: Student must exist AND be enrolled in exam
@@ -40,13 +46,12 @@ import java.util.Optional;
 @Service
 public class BarcodeService {
 
-    private static final String BARCODE_DIR = "barcodes/";
     private static final int BARCODE_WIDTH = 300;
     private static final int BARCODE_HEIGHT = 100;
+    private static final int BARCODE_MARGIN = 1;
+    private static final int SVG_QUIET_ZONE_MODULES = 10;
     private static final int MAX_SCANS_PER_MINUTE = 100;
-
-    @Autowired
-    private StudentRepository studentRepository;
+    private static final long MAX_CLOCK_SKEW_MILLIS = 5_000L; // device clocks slightly ahead still count as now
 
     @Autowired
     private ExamRepository examRepository;
@@ -54,85 +59,186 @@ public class BarcodeService {
     @Autowired
     private BarcodeScanRepository barcodeScanRepository;
 
-    public BarcodeService() {
-        // Create barcodes directory if it doesn't exist
-        try {
-            Path path = Paths.get(BARCODE_DIR);
-            if (!Files.exists(path)) {
-                Files.createDirectories(path);
-                System.out.println("✅ Barcode directory created: " + BARCODE_DIR);
-            }
-        } catch (IOException e) {
-            System.err.println("❌ Error creating barcode directory: " + e.getMessage());
-        }
-    }
+    @Autowired
+    private ScanRateLimiter scanRateLimiter;
+
+    @Autowired
+    private ExamEnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private ScanAuditWriter scanAuditWriter;
+
+    @Autowired
+    private ExamEventBroadcaster eventBroadcaster;
+
+    @Autowired
+    private StudentLookupCache studentLookupCache;
+
+    @Autowired
+    private StudentDirectory studentDirectory;
+
+    @Autowired
+    private StudentBatchResolver studentBatchResolver;
+
+    @Autowired
+    private BarcodeImageCache barcodeImageCache;
+
+    @Autowired
+    private BarcodePackStore barcodePackStore;
 
     /**
-     * Generate a barcode for a student ID and save it to disk
+     * Generate a barcode for a student ID and save it in the barcode pack
      * @param studentId The student ID (e.g., BCS25165336)
-     * @return Path to the saved barcode image
+     * @return Student ID the barcode was stored under
      */
     public String generateBarcode(String studentId) throws WriterException, IOException {
-        // Configure barcode encoding
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.MARGIN, 1);
-
-        // Generate barcode matrix
-        Code128Writer writer = new Code128Writer();
-        BitMatrix bitMatrix = writer.encode(
-                studentId,
-                BarcodeFormat.CODE_128,
-                BARCODE_WIDTH,
-                BARCODE_HEIGHT,
-                hints
-        );
-
-        // Convert to image
-        BufferedImage barcodeImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+        // Store the same bytes the API serves (rendered at most once)
+        barcodePackStore.put(studentId, generateBarcodeBytes(studentId));
 
-        // Save to file
-        String filename = studentId + ".png";
-        Path filePath = Paths.get(BARCODE_DIR + filename);
-        ImageIO.write(barcodeImage, "PNG", filePath.toFile());
-
-        System.out.println("✅ Barcode generated: " + filePath);
-        return filePath.toString();
+        System.out.println("✅ Barcode generated: " + studentId);
+        return studentId;
     }
 
     /**
      * Generate barcode as byte array (for API responses)
+     * Served from BarcodeImageCache - the returned array is shared, do not modify it.
      * @param studentId The student ID
      * @return PNG image as byte array
      */
     public byte[] generateBarcodeBytes(String studentId) throws WriterException, IOException {
+        String key = BarcodeImageCache.key(studentId, BARCODE_WIDTH, BARCODE_HEIGHT, BARCODE_MARGIN, "PNG");
+        return barcodeImageCache.getOrRender(key, () -> renderPng(studentId));
+    }
+
+    /**
+     * Generate barcode as SVG (vector - the browser/printer renders it at full resolution)
+     * Served from BarcodeImageCache - the returned array is shared, do not modify it.
+     * @param studentId The student ID
+     * @return UTF-8 SVG document
+     */
+    public byte[] generateBarcodeSvg(String studentId) throws WriterException, IOException {
+        String key = BarcodeImageCache.key(studentId, BARCODE_WIDTH, BARCODE_HEIGHT, SVG_QUIET_ZONE_MODULES, "SVG");
+        return barcodeImageCache.getOrRender(key, () -> renderSvg(studentId));
+    }
+
+    /**
+     * Get the Code 128 symbol as bar/space widths in modules, starting with a bar
+     * (quiet zone not included). Enough for a client to draw the barcode itself.
+     * @param studentId The student ID
+     * @return alternating bar, space, bar, ... widths
+     */
+    public int[] generateBarRuns(String studentId) throws WriterException {
+        // Width 0 and no margin: one matrix column per module
+        Map<EncodeHintType, Object> hints = new HashMap<>();
+        hints.put(EncodeHintType.MARGIN, 0);
+        BitMatrix modules = new Code128Writer().encode(studentId, BarcodeFormat.CODE_128, 0, 1, hints);
+
+        int[] runs = new int[modules.getWidth()];
+        int runCount = 0;
+        int runLength = 0;
+        boolean bar = true;
+        for (int x = 0; x < modules.getWidth(); x++) {
+            if (modules.get(x, 0) != bar) {
+                runs[runCount++] = runLength;
+                runLength = 0;
+                bar = !bar;
+            }
+            runLength++;
+        }
+        runs[runCount++] = runLength;
+        return Arrays.copyOf(runs, runCount);
+    }
+
+    /**
+     * Quiet zone used for SVG output (Code 128 spec minimum)
+     */
+    public int getSvgQuietZoneModules() {
+        return SVG_QUIET_ZONE_MODULES;
+    }
+
+    /**
+     * Build the SVG: one path, each bar a relative "m dx 0 h w v 1 h -w z",
+     * stretched to BARCODE_WIDTH x BARCODE_HEIGHT
+     */
+    private byte[] renderSvg(String studentId) throws WriterException {
+        int[] runs = generateBarRuns(studentId);
+        int totalModules = 2 * SVG_QUIET_ZONE_MODULES;
+        for (int run : runs) {
+            totalModules += run;
+        }
+
+        StringBuilder path = new StringBuilder(runs.length * 12);
+        int x = SVG_QUIET_ZONE_MODULES;
+        int lastBarX = 0;
+        for (int i = 0; i < runs.length; i++) {
+            if (i % 2 == 0) {
+                path.append('m').append(x - lastBarX).append(" 0h").append(runs[i])
+                        .append("v1h-").append(runs[i]).append('z');
+                lastBarX = x;
+            }
+            x += runs[i];
+        }
+        path.setCharAt(0, 'M');
+
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + BARCODE_WIDTH
+                + "\" height=\"" + BARCODE_HEIGHT + "\" viewBox=\"0 0 " + totalModules
+                + " 1\" preserveAspectRatio=\"none\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encode the Code 128 barcode and write it as a 1-bit PNG (no caching)
+     */
+    byte[] renderPng(String studentId) throws WriterException {
+        return BarcodePngEncoder.encode(encodeMatrix(studentId));
+    }
+
+    /**
+     * Code 128 matrix for a student ID (package-private for the render benchmarks)
+     */
+    BitMatrix encodeMatrix(String studentId) throws WriterException {
+        // Configure barcode encoding
         Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.MARGIN, 1);
+        hints.put(EncodeHintType.MARGIN, BARCODE_MARGIN);
 
+        // Generate barcode matrix
         Code128Writer writer = new Code128Writer();
-        BitMatrix bitMatrix = writer.encode(
+        return writer.encode(
                 studentId,
                 BarcodeFormat.CODE_128,
                 BARCODE_WIDTH,
                 BARCODE_HEIGHT,
                 hints
         );
+    }
 
-        BufferedImage barcodeImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
+    /**
+     * Get a stored barcode from the barcode pack (memory-mapped, not copied)
+     * @param studentId The student ID
+     * @return read-only PNG bytes, or null if not stored
+     */
+    public ByteBuffer getBarcodeFile(String studentId) {
+        return barcodePackStore.get(studentId);
+    }
 
-        // Convert to byte array
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(barcodeImage, "PNG", baos);
-        return baos.toByteArray();
+    /**
+     * Find where a stored barcode lives in the pack file (for sending it with sendfile)
+     * @param studentId The student ID
+     * @return file and byte range, or null if not stored
+     */
+    public BarcodePackStore.Location getBarcodeLocation(String studentId) {
+        return barcodePackStore.locate(studentId);
     }
 
     /**
-     * Get existing barcode file path
+     * Get the content-derived ETag of a stored barcode
      * @param studentId The student ID
-     * @return Path to barcode file or null if not found
+     * @return quoted ETag, or null if not stored
      */
-    public Path getBarcodeFile(String studentId) {
-        Path filePath = Paths.get(BARCODE_DIR + studentId + ".png");
-        return Files.exists(filePath) ? filePath : null;
+    public String getBarcodeETag(String studentId) {
+        return barcodePackStore.getETag(studentId);
     }
 
     /**
@@ -141,11 +247,12 @@ public class BarcodeService {
      * @return true if barcode exists
      */
     public boolean barcodeExists(String studentId) {
-        return Files.exists(Paths.get(BARCODE_DIR + studentId + ".png"));
+        return barcodePackStore.contains(studentId);
     }
 
     /**
-     * Generate barcodes for multiple students
+     * Generate barcodes for multiple students, one at a time on the calling thread
+     * (see BulkBarcodeGenerator for the parallel version)
      * @param studentIds Array of student IDs
      * @return Number of barcodes successfully generated
      */
@@ -179,78 +286,203 @@ public class BarcodeService {
      * @return Validation result with student data or error
      */
     public BarcodeValidationResult validateBarcodeScan(String scannedBarcode, Long examId, String scannedBy) {
+        BarcodeValidationResult result = checkBarcodeScan(scannedBarcode, examId, scannedBy);
+
+        // Exam is resolved by the audit writer if the scan stopped before loading it
+        scanAuditWriter.submit(toScanLog(result, scannedBy), examId);
+        eventBroadcaster.publishScan(examId, scannedBarcode, result.getValidationStatus());
+        return result;
+    }
+
+    /**
+     * Run the validation checks for one scan WITHOUT writing the audit record.
+     * Callers that persist the scan inside their own transaction
+     * (e.g., scan-and-mark attendance) use this together with saveScanLog.
+     *
+     * @param scannedBarcode - the barcode value (student ID)
+     * @param examId - the exam being scanned for
+     * @param scannedBy - username of invigilator
+     * @return Validation result with student and exam (when found)
+     */
+    public BarcodeValidationResult checkBarcodeScan(String scannedBarcode, Long examId, String scannedBy) {
+        return evaluateScan(scannedBarcode, examId,
+                scanRateLimiter.tryAcquire(scannedBy, MAX_SCANS_PER_MINUTE),
+                this::findStudent, examRepository::findById);
+    }
+
+    /**
+     * Resolve a scanned student ID: in-memory directory once loaded, cached database lookup before that
+     */
+    private Optional<Student> findStudent(String studentId) {
+        if (studentDirectory.isLoaded()) {
+            return studentDirectory.findByStudentId(studentId);
+        }
+        return studentLookupCache.findByStudentId(studentId);
+    }
+
+    /**
+     * Build the audit record for a scan checked with checkBarcodeScan,
+     * loading the exam if validation stopped before it.
+     * The caller saves it (e.g., in the same transaction as the attendance record).
+     * @param result - validation result from checkBarcodeScan
+     * @param examId - exam the scan was for
+     * @param scannedBy - username of invigilator
+     */
+    public BarcodeScan buildScanLog(BarcodeValidationResult result, Long examId, String scannedBy) {
+        BarcodeScan scanLog = toScanLog(result, scannedBy);
+        if (scanLog.getExam() == null && examId != null) {
+            examRepository.findById(examId).ifPresent(scanLog::setExam);
+        }
+        return scanLog;
+    }
+
+    /**
+     * Validate many scans at once (e.g., an offline scan queue being replayed)
+     *
+     * Same checks as validateBarcodeScan, but students are resolved from the
+     * batch resolver (directory, cache, then chunked IN queries), each exam is loaded once, and the audit rows are
+     * queued for the write-behind writer together.
+     * Entries with a client timestamp (when the scan really happened) are
+     * counted in the invigilator's rate limit window at that time, clamped
+     * to [last accepted scan, now]; a timestamp ahead of the server clock is
+     * rejected as INVALID_TIMESTAMP. Entries without one count as live scans.
+     * The audit row keeps the server time the scan was received; the
+     * clamped device time goes in its clientTimestamp column.
+     *
+     * @param entries - scanned barcodes with their exam and client timestamp
+     * @param scannedBy - username of invigilator
+     * @return one validation result per entry, in request order
+     */
+    public List<BarcodeValidationResult> validateBarcodeScans(List<BarcodeScanEntry> entries, String scannedBy) {
+        Set<String> barcodes = entries.stream()
+                .map(BarcodeScanEntry::getScannedBarcode)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> examIds = entries.stream()
+                .map(BarcodeScanEntry::getExamId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<String, Student> studentsById = studentBatchResolver.resolve(barcodes);
+        Map<Long, Exam> examsById = examRepository.findAllById(examIds).stream()
+                .collect(Collectors.toMap(Exam::getId, Function.identity()));
+
+        // Replayed entries are counted first, in device time order, so the window stays in time order
+        long latestAllowed = System.currentTimeMillis() + MAX_CLOCK_SKEW_MILLIS;
+        List<Integer> replayed = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Long clientTimestamp = entries.get(i).getClientTimestamp();
+            if (clientTimestamp != null && clientTimestamp <= latestAllowed) {
+                replayed.add(i);
+            }
+        }
+        long[] countedAt = scanRateLimiter.acquireReplay(scannedBy,
+                replayed.stream().mapToLong(i -> entries.get(i).getClientTimestamp()).toArray(),
+                MAX_SCANS_PER_MINUTE);
+        Map<Integer, Long> replayCountedAt = new HashMap<>();
+        for (int i = 0; i < replayed.size(); i++) {
+            replayCountedAt.put(replayed.get(i), countedAt[i]);
+        }
+
+        List<BarcodeValidationResult> results = new ArrayList<>(entries.size());
+        List<BarcodeScan> scanLogs = new ArrayList<>(entries.size());
+
+        for (int i = 0; i < entries.size(); i++) {
+            BarcodeScanEntry entry = entries.get(i);
+            Long counted = replayCountedAt.get(i);
+            BarcodeValidationResult result;
+            if (entry.getClientTimestamp() != null && counted == null) {
+                result = new BarcodeValidationResult();
+                result.setScannedBarcode(entry.getScannedBarcode());
+                result.setTimestamp(LocalDateTime.now());
+                result.reject("INVALID_TIMESTAMP", "Scan time is ahead of the server clock");
+            } else {
+                boolean withinRateLimit = counted != null
+                        ? counted != ScanRateLimiter.REJECTED
+                        : scanRateLimiter.tryAcquire(scannedBy, MAX_SCANS_PER_MINUTE);
+                result = evaluateScan(entry.getScannedBarcode(), entry.getExamId(), withinRateLimit,
+                        barcode -> Optional.ofNullable(studentsById.get(barcode)),
+                        examId -> Optional.ofNullable(examsById.get(examId)));
+            }
+
+            BarcodeScan scanLog = toScanLog(result, scannedBy);
+            if (scanLog.getExam() == null && entry.getExamId() != null) {
+                scanLog.setExam(examsById.get(entry.getExamId()));
+            }
+            if (counted != null && counted != ScanRateLimiter.REJECTED) {
+                scanLog.setClientTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(counted), ZoneId.systemDefault()));
+            }
+
+            results.add(result);
+            scanLogs.add(scanLog);
+        }
+
+        scanAuditWriter.submitAll(scanLogs);
+        for (int i = 0; i < entries.size(); i++) {
+            eventBroadcaster.publishScan(entries.get(i).getExamId(), entries.get(i).getScannedBarcode(),
+                    results.get(i).getValidationStatus());
+        }
+        return results;
+    }
+
+    /**
+     * Run the validation checks using the given student and exam lookups
+     * (database for single scans, preloaded maps for batches)
+     * @param withinRateLimit - outcome of the caller's rate limit check
+     */
+    private BarcodeValidationResult evaluateScan(String scannedBarcode, Long examId, boolean withinRateLimit,
+                                                 Function<String, Optional<Student>> studentLookup,
+                                                 Function<Long, Optional<Exam>> examLookup) {
         BarcodeValidationResult result = new BarcodeValidationResult();
         result.setScannedBarcode(scannedBarcode);
         result.setTimestamp(LocalDateTime.now());
 
-        // 1. RATE LIMITING CHECK
-        LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
-        long recentScans = barcodeScanRepository.countRecentScansByUser(scannedBy, oneMinuteAgo);
-
-        if (recentScans >= MAX_SCANS_PER_MINUTE) {
-            result.setValid(false);
-            result.setErrorMessage("Rate limit exceeded. Maximum " + MAX_SCANS_PER_MINUTE + " scans per minute.");
-            logBarcodeScan(scannedBarcode, null, examId, scannedBy, "RATE_LIMITED", result.getErrorMessage());
-            return result;
+        // 1. RATE LIMITING CHECK (in-memory sliding window, no database query)
+        if (!withinRateLimit) {
+            return result.reject("RATE_LIMITED", "Rate limit exceeded. Maximum " + MAX_SCANS_PER_MINUTE + " scans per minute.");
         }
 
         // 2. CHECK IF STUDENT EXISTS IN DATABASE
-        Optional<Student> studentOpt = studentRepository.findByStudentId(scannedBarcode);
+        Optional<Student> studentOpt = scannedBarcode == null ? Optional.empty() : studentLookup.apply(scannedBarcode);
         if (studentOpt.isEmpty()) {
-            result.setValid(false);
-            result.setErrorMessage("Student not found: " + scannedBarcode);
-            logBarcodeScan(scannedBarcode, null, examId, scannedBy, "STUDENT_NOT_FOUND", result.getErrorMessage());
-            return result;
+            return result.reject("STUDENT_NOT_FOUND", "Student not found: " + scannedBarcode);
         }
 
         Student student = studentOpt.get();
+        result.setStudent(student);
 
         // 3. CHECK IF STUDENT IS ENROLLED IN THIS EXAM
-        Optional<Exam> examOpt = examRepository.findById(examId);
+        Optional<Exam> examOpt = examId == null ? Optional.empty() : examLookup.apply(examId);
         if (examOpt.isEmpty()) {
-            result.setValid(false);
-            result.setErrorMessage("Exam not found");
-            logBarcodeScan(scannedBarcode, student, examId, scannedBy, "EXAM_NOT_FOUND", result.getErrorMessage());
-            return result;
+            return result.reject("EXAM_NOT_FOUND", "Exam not found");
         }
 
         Exam exam = examOpt.get();
-        boolean isEnrolled = exam.getStudents().stream()
-                .anyMatch(s -> s.getStudentId().equals(scannedBarcode));
+        result.setExam(exam);
+        boolean isEnrolled = enrollmentIndex.isEnrolled(examId, scannedBarcode);
 
         if (!isEnrolled) {
-            result.setValid(false);
-            result.setErrorMessage("Student " + student.getFullName() + " is not enrolled in this exam");
-            logBarcodeScan(scannedBarcode, student, examId, scannedBy, "NOT_ENROLLED", result.getErrorMessage());
-            return result;
+            return result.reject("NOT_ENROLLED", "Student " + student.getFullName() + " is not enrolled in this exam");
         }
 
         // 4. ALL CHECKS PASSED - VALIDATION SUCCESS
         result.setValid(true);
-        result.setStudent(student);
-        result.setExam(exam);
-        logBarcodeScan(scannedBarcode, student, examId, scannedBy, "SUCCESS", null);
-
+        result.setValidationStatus("SUCCESS");
         return result;
     }
 
     /**
-     * Log barcode scan attempt to database (audit trail)
+     * Build the audit trail record for a validation result
      */
-    private void logBarcodeScan(String scannedBarcode, Student student, Long examId,
-                                String scannedBy, String status, String errorMessage) {
+    private BarcodeScan toScanLog(BarcodeValidationResult result, String scannedBy) {
         BarcodeScan scanLog = new BarcodeScan();
-        scanLog.setScannedBarcode(scannedBarcode);
-        scanLog.setStudent(student);
+        scanLog.setScannedBarcode(result.getScannedBarcode());
+        scanLog.setStudent(result.getStudent());
+        scanLog.setExam(result.getExam());
         scanLog.setScannedBy(scannedBy);
-        scanLog.setValidationStatus(status);
-        scanLog.setErrorMessage(errorMessage);
-
-        if (examId != null) {
-            examRepository.findById(examId).ifPresent(scanLog::setExam);
-        }
-
-        barcodeScanRepository.save(scanLog);
+        scanLog.setValidationStatus(result.getValidationStatus());
+        scanLog.setErrorMessage(result.getErrorMessage());
+        return scanLog;
     }
 
     /**
@@ -264,6 +496,7 @@ public class BarcodeService {
         stats.put("username", username);
         stats.put("totalScans24h", totalScans);
         stats.put("scansPerMinuteLimit", MAX_SCANS_PER_MINUTE);
+        stats.put("rateLimiter", scanRateLimiter.getState(username, MAX_SCANS_PER_MINUTE));
 
         return stats;
     }
@@ -274,6 +507,7 @@ public class BarcodeService {
     public static class BarcodeValidationResult {
         private String scannedBarcode;
         private boolean valid;
+        private String validationStatus; // SUCCESS, RATE_LIMITED, INVALID_TIMESTAMP, STUDENT_NOT_FOUND, EXAM_NOT_FOUND, NOT_ENROLLED
         private Student student;
         private Exam exam;
         private String errorMessage;
@@ -286,6 +520,9 @@ public class BarcodeService {
         public boolean isValid() { return valid; }
         public void setValid(boolean valid) { this.valid = valid; }
 
+        public String getValidationStatus() { return validationStatus; }
+        public void setValidationStatus(String validationStatus) { this.validationStatus = validationStatus; }
+
         public Student getStudent() { return student; }
         public void setStudent(Student student) { this.student = student; }
 
@@ -297,6 +534,13 @@ public class BarcodeService {
 
         public LocalDateTime getTimestamp() { return timestamp; }
         public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+
+        BarcodeValidationResult reject(String status, String message) {
+            this.valid = false;
+            this.validationStatus = status;
+            this.errorMessage = message;
+            return this;
+        }
     }
 }
 
@@ -0,0 +1,247 @@
+package com.examapp.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BulkBarcodeGenerator - Parallel barcode generation for a whole cohort
+ *
+ * Barcodes are rendered on the shared barcodeRenderExecutor (one thread per core).
+ * A bulk run is tracked as a Job with progress counters, per-student failures
+ * and cooperative cancellation. Async jobs run one at a time on a dedicated
+ * coordinator thread; finished jobs are kept for a while so clients can poll them.
+ */
+@Service
+public class BulkBarcodeGenerator {
+
+    private static final int MAX_FINISHED_JOBS = 20;
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @Autowired
+    @Qualifier("barcodeRenderExecutor")
+    private ThreadPoolExecutor renderExecutor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ExecutorService jobRunner;
+
+    @PostConstruct
+    public void init() {
+        jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "barcode-bulk-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::cancel);
+        jobRunner.shutdownNow();
+    }
+
+    /**
+     * Start generating barcodes in the background
+     * @param studentIds - students to generate barcodes for
+     * @return the queued job (poll getJob for progress)
+     */
+    public Job startJob(List<String> studentIds) {
+        Job job = register(studentIds.size());
+        jobRunner.execute(() -> run(job, studentIds));
+        return job;
+    }
+
+    /**
+     * Generate barcodes in parallel and wait until all are done
+     */
+    public Job generateNow(List<String> studentIds) {
+        Job job = register(studentIds.size());
+        run(job, studentIds);
+        return job;
+    }
+
+    public Optional<Job> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Request cancellation - barcodes already being rendered still finish
+     * @return false if no such job
+     */
+    public boolean cancelJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    private Job register(int total) {
+        Job job = new Job(UUID.randomUUID().toString(), total);
+        jobs.put(job.getJobId(), job);
+
+        // Forget the oldest finished jobs
+        List<Job> finished = new ArrayList<>();
+        for (Job existing : jobs.values()) {
+            if (existing.getFinishedAt() != null) {
+                finished.add(existing);
+            }
+        }
+        if (finished.size() > MAX_FINISHED_JOBS) {
+            finished.sort((a, b) -> a.getFinishedAt().compareTo(b.getFinishedAt()));
+            finished.subList(0, finished.size() - MAX_FINISHED_JOBS).forEach(old -> jobs.remove(old.getJobId()));
+        }
+        return job;
+    }
+
+    private void run(Job job, List<String> studentIds) {
+        job.start();
+        CountDownLatch done = new CountDownLatch(studentIds.size());
+
+        for (int i = 0; i < studentIds.size(); i++) {
+            if (job.isCancelRequested()) {
+                // Nothing more is submitted - release the latch for the rest
+                for (int j = i; j < studentIds.size(); j++) {
+                    done.countDown();
+                }
+                break;
+            }
+            String studentId = studentIds.get(i);
+            // Bounded queue + CallerRunsPolicy: when the pool is saturated this thread renders too
+            renderExecutor.execute(() -> {
+                try {
+                    generateOne(job, studentId);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            done.await();
+            job.finish(job.isCancelRequested() ? "CANCELLED" : "COMPLETED");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+            job.finish("CANCELLED");
+        }
+        System.out.println("✅ Bulk barcode job " + job.getJobId() + " " + job.getStatus()
+                + ": " + job.generated.get() + " generated, " + job.failed.get() + " failed");
+    }
+
+    private void generateOne(Job job, String studentId) {
+        if (job.isCancelRequested()) {
+            return;
+        }
+        try {
+            if (barcodeService.barcodeExists(studentId)) {
+                job.alreadyExisted.incrementAndGet();
+            } else {
+                barcodeService.generateBarcode(studentId);
+                job.generated.incrementAndGet();
+            }
+        } catch (Exception e) {
+            job.addFailure(studentId, e.getMessage());
+        } finally {
+            job.processed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Bulk generation job - progress, failures and cancellation flag
+     */
+    public static class Job {
+        private final String jobId;
+        private final int total;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile String status = "QUEUED";
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile boolean cancelRequested;
+
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger generated = new AtomicInteger();
+        private final AtomicInteger alreadyExisted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final Queue<Map<String, String>> failures = new ConcurrentLinkedQueue<>();
+
+        Job(String jobId, int total) {
+            this.jobId = jobId;
+            this.total = total;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            status = "RUNNING";
+        }
+
+        void finish(String finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        void cancel() {
+            cancelRequested = true;
+        }
+
+        void addFailure(String studentId, String error) {
+            if (failed.incrementAndGet() <= MAX_REPORTED_FAILURES) {
+                Map<String, String> failure = new HashMap<>();
+                failure.put("studentId", studentId);
+                failure.put("error", error);
+                failures.add(failure);
+            }
+        }
+
+        /**
+         * Job snapshot for API responses
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("jobId", jobId);
+            map.put("status", status);
+            map.put("total", total);
+            map.put("processed", processed.get());
+            map.put("generated", generated.get());
+            map.put("alreadyExisted", alreadyExisted.get());
+            map.put("failed", failed.get());
+            map.put("failures", new ArrayList<>(failures));
+            map.put("progressPercent", total == 0 ? 100.0 : processed.get() * 100.0 / total);
+            map.put("cancelRequested", cancelRequested);
+            map.put("createdAt", createdAt);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            return map;
+        }
+
+        public String getJobId() { return jobId; }
+        public String getStatus() { return status; }
+        public int getTotal() { return total; }
+        public int getGenerated() { return generated.get(); }
+        public int getFailed() { return failed.get(); }
+        public boolean isCancelRequested() { return cancelRequested; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+    }
+}
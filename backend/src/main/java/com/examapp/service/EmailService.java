@@ -1,13 +1,15 @@
 package com.examapp.service;
 
+import com.examapp.model.Attendance;
 import com.examapp.model.NotificationLog;
 import com.examapp.repository.NotificationLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * EmailService - Sends notification emails (NO SENSITIVE DATA)
  *
@@ -16,13 +18,19 @@ import org.springframework.stereotype.Service;
  * 2. NO student names, IDs, or personal data in email body
  * 3. User must check their account/portal for details
  * 4. All emails logged to notification_logs table
+ *    (the same rows are the outbox: callers never wait for SMTP)
+ *    Repeats for the same recipient/type/entity are folded into
+ *    one digest per window (NotificationCoalescer)
  * 5. Generic messages only - no specific exam/course details
  */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private NotificationOutbox outbox;
+
+    @Autowired
+    private NotificationCoalescer coalescer;
 
     @Autowired
     private NotificationLogRepository notificationLogRepository;
@@ -30,19 +38,38 @@ public class EmailService {
     @Value("${librarian.email}")
     private String librarianEmail;
 
+    private static final String ATTENDANCE_SUBJECT = "Exam Attendance Notification";
+    private static final String ATTENDANCE_BODY =
+            "Your exam attendance has been recorded.\n\n" +
+            "Check your student portal for details.\n\n" +
+            "Do not reply to this email.\n\n" +
+            "University Exam System";
+
     /**
      * Notify student that their attendance was marked
      * EMAIL CONTAINS: Just a notification, no details
      */
     public void notifyAttendanceMarked(String studentEmail, Long examId) {
-        String subject = "Exam Attendance Notification";
-        String body =
-                "Your exam attendance has been recorded.\n\n" +
-                "Check your student portal for details.\n\n" +
-                "Do not reply to this email.\n\n" +
-                "University Exam System";
+        sendEmail(studentEmail, ATTENDANCE_SUBJECT, ATTENDANCE_BODY, "ATTENDANCE_MARKED", examId);
+    }
 
-        sendEmail(studentEmail, subject, body, "ATTENDANCE_MARKED", examId);
+    /**
+     * Notify many students at once (offline batch sync) - queued in one transaction
+     * @param records - saved attendance records; students without an email are skipped
+     */
+    public void notifyAttendanceMarked(List<Attendance> records) {
+        List<NotificationLog> logs = new ArrayList<>();
+        for (Attendance attendance : records) {
+            String email = attendance.getStudent().getEmail();
+            if (email != null && !email.isEmpty()) {
+                NotificationLog log = buildLog(email, ATTENDANCE_SUBJECT, ATTENDANCE_BODY, "ATTENDANCE_MARKED",
+                        attendance.getExam().getId());
+                if (coalescer.admit(log)) {
+                    logs.add(log);
+                }
+            }
+        }
+        outbox.enqueueAll(logs);
     }
 
     /**
@@ -107,35 +134,27 @@ public class EmailService {
     }
 
     /**
-     * Core email sending method with logging
-     * Logs all attempts (success or failure) to database
+     * Core email method: queue the email in the outbox
+     * The notification_logs row is the queue entry AND the audit record;
+     * NotificationOutbox sends it in the background and records the outcome.
+     * A repeat within the coalescing window is only counted for the digest.
      */
     private void sendEmail(String recipientEmail, String subject, String body, String notificationType, Long relatedEntityId) {
+        NotificationLog log = buildLog(recipientEmail, subject, body, notificationType, relatedEntityId);
+        if (coalescer.admit(log)) {
+            outbox.enqueue(log);
+        }
+    }
+
+    private NotificationLog buildLog(String recipientEmail, String subject, String body,
+                                     String notificationType, Long relatedEntityId) {
         NotificationLog log = new NotificationLog();
         log.setRecipientEmail(recipientEmail);
         log.setSubject(subject);
+        log.setBody(body);
         log.setNotificationType(notificationType);
         log.setRelatedEntityId(relatedEntityId);
-
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(recipientEmail);
-            message.setSubject(subject);
-            message.setText(body);
-
-            mailSender.send(message);
-
-            log.setStatus("SUCCESS");
-            System.out.println("✅ Email sent: " + notificationType + " to " + recipientEmail);
-
-        } catch (Exception e) {
-            log.setStatus("FAILED");
-            log.setErrorMessage(e.getMessage());
-            System.err.println("❌ Failed to send email: " + e.getMessage());
-        } finally {
-            // Always log the attempt
-            notificationLogRepository.save(log);
-        }
+        return log;
     }
 
     /**
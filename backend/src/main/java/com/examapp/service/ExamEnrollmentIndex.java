@@ -0,0 +1,80 @@
+package com.examapp.service;
+
+import com.examapp.model.Student;
+import com.examapp.repository.ExamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * ExamEnrollmentIndex - In-memory roster index for O(1) enrollment checks
+ *
+ * Keeps an immutable set of enrolled student IDs (e.g., "BCS25165336") per exam.
+ * Each set is built once from a single query on exam_students and replaced
+ * as a whole (never mutated) when enrollment changes, so readers never see
+ * a half-updated roster and never take a lock.
+ */
+@Component
+public class ExamEnrollmentIndex {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    private final Map<Long, Set<String>> rosters = new ConcurrentHashMap<>();
+
+    /**
+     * Check if a student is enrolled in an exam
+     * @param examId - exam ID
+     * @param studentId - student ID (barcode value)
+     * @return true if the student is on the exam roster
+     */
+    public boolean isEnrolled(Long examId, String studentId) {
+        return getEnrolledStudentIds(examId).contains(studentId);
+    }
+
+    /**
+     * Get the enrolled student IDs for an exam (loaded on first use)
+     * @param examId - exam ID
+     * @return immutable set of student IDs
+     */
+    public Set<String> getEnrolledStudentIds(Long examId) {
+        Set<String> roster = rosters.get(examId);
+        if (roster == null) {
+            roster = rosters.computeIfAbsent(examId,
+                    id -> Set.copyOf(examRepository.findEnrolledStudentIds(id)));
+        }
+        return roster;
+    }
+
+    /**
+     * Publish a roster that has already been loaded (avoids a second query)
+     * @param examId - exam ID
+     * @param students - students enrolled in the exam
+     */
+    public void publish(Long examId, Collection<Student> students) {
+        rosters.put(examId, students.stream()
+                .map(Student::getStudentId)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    /**
+     * Rebuild the roster for an exam after enrollment changed
+     * @param examId - exam ID
+     */
+    public void refresh(Long examId) {
+        rosters.put(examId, Set.copyOf(examRepository.findEnrolledStudentIds(examId)));
+    }
+
+    /**
+     * Drop the roster for an exam; it is reloaded on next use
+     * @param examId - exam ID
+     */
+    public void invalidate(Long examId) {
+        rosters.remove(examId);
+    }
+}
@@ -0,0 +1,500 @@
+package com.examapp.service;
+
+import com.examapp.dto.ExamEvent;
+import com.examapp.model.Attendance;
+import com.examapp.model.Incident;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ExamEventBroadcaster - Pushes live attendance, incident and scan events to
+ * supervisors watching an exam (Server-Sent Events)
+ *
+ * Fan-out:
+ * - Subscribers are grouped per exam; publishing with nobody watching costs
+ *   one map lookup.
+ * - Each event is serialized to JSON ONCE and the same string is queued for
+ *   every subscriber of that exam.
+ * - Every subscriber has its own bounded queue and at most one delivery task
+ *   on the event pool, so a slow client never delays the publisher.
+ * - A subscriber whose queue overflows is disconnected instead of buffering
+ *   without limit. The browser's EventSource reconnects by itself and starts
+ *   again from a fresh "summary" event.
+ * - Sends are blocking servlet writes, so a client that stops reading can
+ *   hold a pool thread until the socket write times out. A watchdog (on its
+ *   own thread) detaches any subscriber whose send has taken longer than
+ *   send-timeout-ms and adds a pool thread in its place; the stuck thread
+ *   completes the emitter with an error once its write returns, and the
+ *   pool shrinks back. So the other subscribers are delayed by at most about
+ *   send-timeout-ms (plus the watchdog interval), at the cost of one extra
+ *   thread per stuck client while its write is blocked.
+ *
+ * Publishers call this AFTER their write has committed. A heartbeat comment
+ * keeps idle streams open through proxies and detects dead connections.
+ *
+ * Opening a stream: the subscriber is registered first and the summary is
+ * taken after, so no change can fall between the two. The summary is always
+ * sent first, and queued attendance deltas whose counter version is already
+ * in it are skipped (AttendanceCounters.Snapshot).
+ */
+@Component
+public class ExamEventBroadcaster {
+
+    public static final String ATTENDANCE_MARKED = "attendance-marked";
+    public static final String STATUS_CHANGED = "status-changed";
+    public static final String INCIDENT_REPORTED = "incident-reported";
+    public static final String SCAN = "scan";
+    public static final String SUMMARY = "summary";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("examEventExecutor")
+    private ScheduledThreadPoolExecutor eventExecutor;
+
+    @Value("${exam.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${exam.events.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${exam.events.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${exam.events.stream-timeout-ms:3600000}")
+    private long streamTimeoutMs;
+
+    @Value("${exam.events.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private ScheduledExecutorService watchdog;
+    private int baseThreads;
+    private int stalledThreads; // guarded by this
+
+    // Metrics
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        baseThreads = eventExecutor.getCorePoolSize();
+        eventExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        // Not on the event pool: it must run when every pool thread is stuck in a send
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-events-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(100, sendTimeoutMs / 4);
+        watchdog.scheduleAtFixedRate(this::checkStalledSends, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * Open a live event stream for an exam
+     * @param examId - exam to watch
+     * @param snapshot - takes the current summary, sent first so the client has a baseline
+     *                   (called after the subscriber is registered)
+     * @return emitter to return from the controller
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Long examId, Supplier<AttendanceCounters.Snapshot> snapshot) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many live subscribers, try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(examId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        subscribers.computeIfAbsent(examId, id -> new CopyOnWriteArraySet<>()).add(subscriber);
+
+        // Deltas published from here on are queued but held back until the summary is ready
+        AttendanceCounters.Snapshot current;
+        try {
+            current = snapshot.get();
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        subscriber.snapshotVersion = current.getVersion();
+        subscriber.summary = SseEmitter.event().name(SUMMARY).data(toJson(current.getSummary()));
+        subscriber.started = true;
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * A student was marked (manually, by scan, or from an offline batch)
+     * @param countersVersion - version returned by AttendanceCounters.recordMarked
+     */
+    public void publishAttendanceMarked(Attendance attendance, long countersVersion) {
+        if (!hasSubscribers(attendance.getExam().getId())) {
+            return;
+        }
+        ExamEvent event = new ExamEvent(ATTENDANCE_MARKED, attendance.getExam().getId());
+        event.setAttendanceId(attendance.getId());
+        event.setStudentId(attendance.getStudent().getId());
+        event.setStudentNumber(attendance.getStudent().getStudentId());
+        event.setStatus(attendance.getStatus());
+        event.setMethod(attendance.getMethod());
+        publish(event, countersVersion);
+    }
+
+    /**
+     * An attendance record was corrected
+     * @param countersVersion - version returned by AttendanceCounters.recordStatusChange
+     */
+    public void publishStatusChanged(Attendance attendance, String previousStatus, long countersVersion) {
+        if (!hasSubscribers(attendance.getExam().getId())) {
+            return;
+        }
+        ExamEvent event = new ExamEvent(STATUS_CHANGED, attendance.getExam().getId());
+        event.setAttendanceId(attendance.getId());
+        event.setStudentId(attendance.getStudent().getId());
+        event.setPreviousStatus(previousStatus);
+        event.setStatus(attendance.getStatus());
+        publish(event, countersVersion);
+    }
+
+    /**
+     * An incident was reported during the exam
+     */
+    public void publishIncidentReported(Incident incident) {
+        if (!hasSubscribers(incident.getExam().getId())) {
+            return;
+        }
+        ExamEvent event = new ExamEvent(INCIDENT_REPORTED, incident.getExam().getId());
+        event.setIncidentId(incident.getId());
+        event.setStudentId(incident.getStudent() != null ? incident.getStudent().getId() : null);
+        event.setCategory(incident.getCategory());
+        event.setSeverity(incident.getSeverity());
+        publish(event);
+    }
+
+    /**
+     * A barcode was scanned without marking attendance (validation only, or rejected)
+     */
+    public void publishScan(Long examId, String scannedBarcode, String validationStatus) {
+        if (examId == null || !hasSubscribers(examId)) {
+            return;
+        }
+        ExamEvent event = new ExamEvent(SCAN, examId);
+        event.setStudentNumber(scannedBarcode);
+        event.setValidationStatus(validationStatus);
+        publish(event);
+    }
+
+    /**
+     * Queue an event for every subscriber of its exam
+     */
+    public void publish(ExamEvent event) {
+        publish(event, 0L);
+    }
+
+    /**
+     * Queue an event for every subscriber of its exam
+     * @param countersVersion - counter change the event reports (0 = does not change the summary)
+     */
+    private void publish(ExamEvent event, long countersVersion) {
+        Set<Subscriber> watching = subscribers.get(event.getExamId());
+        if (watching == null || watching.isEmpty()) {
+            return;
+        }
+        published.increment();
+        String json = toJson(event);
+        String id = Long.toString(sequence.incrementAndGet());
+
+        for (Subscriber subscriber : watching) {
+            if (subscriber.queue.offer(new QueuedEvent(
+                    SseEmitter.event().id(id).name(event.getType()).data(json), countersVersion))) {
+                schedule(subscriber);
+            } else {
+                // Client is not keeping up - drop it rather than buffer without limit
+                evicted.increment();
+                close(subscriber);
+            }
+        }
+    }
+
+    public boolean hasSubscribers(Long examId) {
+        Set<Subscriber> watching = subscribers.get(examId);
+        return watching != null && !watching.isEmpty();
+    }
+
+    /**
+     * Broadcaster statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("subscribers", subscriberCount.get());
+        metrics.put("examsWatched", subscribers.size());
+        metrics.put("published", published.sum());
+        metrics.put("delivered", delivered.sum());
+        metrics.put("evicted", evicted.sum());
+        metrics.put("stalled", stalled.sum());
+        metrics.put("poolThreads", eventExecutor.getCorePoolSize());
+        metrics.put("bufferSize", bufferSize);
+        metrics.put("maxSubscribers", maxSubscribers);
+        return metrics;
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> watching : subscribers.values()) {
+            for (Subscriber subscriber : watching) {
+                if (subscriber.queue.isEmpty()
+                        && subscriber.queue.offer(new QueuedEvent(SseEmitter.event().comment("heartbeat"), 0L))) {
+                    schedule(subscriber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Make sure a delivery task is queued for this subscriber (at most one at a time,
+     * and none before its summary is ready)
+     */
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.started || subscriber.closed.get() || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            eventExecutor.execute(() -> deliver(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    /**
+     * Send everything queued for one subscriber, on the event pool
+     */
+    private void deliver(Subscriber subscriber) {
+        try {
+            if (subscriber.summary != null && !subscriber.closed.get()) {
+                send(subscriber, subscriber.summary);
+                subscriber.summary = null;
+                delivered.increment();
+            }
+            QueuedEvent next;
+            while (!subscriber.closed.get() && (next = subscriber.queue.poll()) != null) {
+                if (next.countersVersion != 0 && next.countersVersion <= subscriber.snapshotVersion) {
+                    continue; // already counted in the summary
+                }
+                send(subscriber, next.event);
+                delivered.increment();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away
+            close(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * One blocking write, watched by checkStalledSends. A close requested
+     * meanwhile is carried out here, once the emitter is no longer locked by the write.
+     */
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (subscriber) {
+            if (subscriber.closed.get()) {
+                return;
+            }
+            subscriber.sendStartedAt = System.currentTimeMillis();
+        }
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            boolean wasStalled;
+            boolean completeNow;
+            synchronized (subscriber) {
+                subscriber.sendStartedAt = 0;
+                wasStalled = subscriber.stalled;
+                completeNow = subscriber.completeAfterSend;
+                subscriber.stalled = false;
+                subscriber.completeAfterSend = false;
+            }
+            if (wasStalled) {
+                resizePool(-1);
+                completeEmitter(subscriber, new IOException("Event send timed out"));
+            } else if (completeNow) {
+                completeEmitter(subscriber, null);
+            }
+        }
+    }
+
+    /**
+     * Watchdog: detach subscribers whose send has been blocked longer than
+     * send-timeout-ms and give the pool a thread in place of each one.
+     * (It cannot complete their emitters itself: send and complete lock the
+     * same emitter, so send() does that once the write returns.)
+     */
+    private void checkStalledSends() {
+        long deadline = System.currentTimeMillis() - sendTimeoutMs;
+        for (Set<Subscriber> watching : subscribers.values()) {
+            for (Subscriber subscriber : watching) {
+                boolean stalledNow = false;
+                synchronized (subscriber) {
+                    long started = subscriber.sendStartedAt;
+                    if (started != 0 && started < deadline && !subscriber.stalled) {
+                        subscriber.stalled = true;
+                        stalledNow = true;
+                    }
+                }
+                if (stalledNow) {
+                    stalled.increment();
+                    resizePool(1);
+                    if (remove(subscriber)) {
+                        subscriber.queue.clear();
+                    }
+                    // send() completes it with an error when the write returns
+                    System.err.println("❌ Live event stream for exam " + subscriber.examId
+                            + " dropped: send blocked for over " + sendTimeoutMs + " ms");
+                }
+            }
+        }
+    }
+
+    /**
+     * Add or remove one thread standing in for a send that is stuck
+     */
+    private synchronized void resizePool(int change) {
+        stalledThreads += change;
+        eventExecutor.setCorePoolSize(baseThreads + stalledThreads);
+    }
+
+    /**
+     * Disconnect a subscriber without waiting on a send in progress
+     * (send and complete lock the same emitter, and a send can block)
+     */
+    private void close(Subscriber subscriber) {
+        if (!remove(subscriber)) {
+            return;
+        }
+        subscriber.queue.clear();
+        synchronized (subscriber) {
+            if (subscriber.sendStartedAt != 0) {
+                subscriber.completeAfterSend = true;
+                return;
+            }
+        }
+        // No send in progress, and none can start now that it is closed
+        completeEmitter(subscriber, null);
+    }
+
+    private void completeEmitter(Subscriber subscriber, Throwable error) {
+        try {
+            if (error != null) {
+                subscriber.emitter.completeWithError(error);
+            } else {
+                subscriber.emitter.complete();
+            }
+        } catch (IllegalStateException e) {
+            // Already completed
+        }
+    }
+
+    /**
+     * @return true the first time a subscriber is removed
+     */
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscriberCount.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.examId, (id, watching) -> {
+            watching.remove(subscriber);
+            return watching.isEmpty() ? null : watching;
+        });
+        return true;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize exam event", e);
+        }
+    }
+
+    /**
+     * An event waiting to be sent, with the counter change it reports
+     */
+    private static class QueuedEvent {
+        private final SseEmitter.SseEventBuilder event;
+        private final long countersVersion;
+
+        QueuedEvent(SseEmitter.SseEventBuilder event, long countersVersion) {
+            this.event = event;
+            this.countersVersion = countersVersion;
+        }
+    }
+
+    /**
+     * One open stream and its pending events
+     */
+    private static class Subscriber {
+        private final Long examId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<QueuedEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Set once by subscribe before started; summary is cleared by the delivery task after sending
+        private volatile SseEmitter.SseEventBuilder summary;
+        private volatile long snapshotVersion;
+        private volatile boolean started;
+        // When the current send started (0 = not sending); the flags are left for send() to act on
+        private volatile long sendStartedAt;
+        private boolean stalled; // guarded by this
+        private boolean completeAfterSend; // guarded by this
+
+        Subscriber(Long examId, SseEmitter emitter, int bufferSize) {
+            this.examId = examId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -25,6 +25,12 @@ public class ExamService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ExamEnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private AttendanceCounters attendanceCounters;
+
     /**
      * Get all exams assigned to a specific invigilator
      * @param username - invigilator's username
@@ -65,7 +71,11 @@ public class ExamService {
     public List<Student> getStudentsForExam(Long examId) {
         Exam exam = examRepository.findById(examId)
                 .orElseThrow(() -> new RuntimeException("Exam not found"));
-        return exam.getStudents();
+        List<Student> students = exam.getStudents();
+
+        // Roster is loaded anyway - publish it so scans don't have to query it again
+        enrollmentIndex.publish(examId, students);
+        return students;
     }
 
     /**
@@ -74,7 +84,10 @@ public class ExamService {
      * @return saved exam
      */
     public Exam createExam(Exam exam) {
-        return examRepository.save(exam);
+        Exam saved = examRepository.save(exam);
+        enrollmentIndex.publish(saved.getId(), saved.getStudents());
+        attendanceCounters.registerExam(saved);
+        return saved;
     }
 
     /**
@@ -0,0 +1,314 @@
+package com.examapp.service;
+
+import com.examapp.model.Student;
+import com.examapp.util.PdfSheetWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * IdCardSheetService - Composes printable A4 sheets of student ID cards
+ *
+ * Each card shows the student's name, program, a Code 128 barcode and the
+ * student ID. Pages are drawn at 150 DPI in grayscale on the barcode render
+ * pool (several pages at once) and written out in order as soon as each one
+ * is finished - as a PDF, or as a ZIP of PNG pages.
+ *
+ * Barcodes are drawn from the bar widths (generateBarRuns) with a whole
+ * number of pixels per module, so every bar prints crisp.
+ */
+@Service
+public class IdCardSheetService {
+
+    // A4 at 150 DPI
+    private static final int PAGE_WIDTH = 1240;
+    private static final int PAGE_HEIGHT = 1754;
+    private static final double PAGE_WIDTH_PT = 595.28;
+    private static final double PAGE_HEIGHT_PT = 841.89;
+    private static final int PAGE_MARGIN = 60;
+    private static final int CARD_GAP = 24;
+
+    private static final int DEFAULT_COLUMNS = 2;
+    private static final int DEFAULT_ROWS = 5;
+    private static final int MAX_COLUMNS = 4;
+    private static final int MAX_ROWS = 10;
+    private static final int QUIET_ZONE_MODULES = 10;
+
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @Autowired
+    private StudentBatchResolver studentBatchResolver;
+
+    @Autowired
+    @Qualifier("barcodeRenderExecutor")
+    private ThreadPoolExecutor renderExecutor;
+
+    /**
+     * Validate and default the cards-per-page grid
+     * @param columns - cards across (null = 2)
+     * @param rows - cards down (null = 5)
+     */
+    public SheetLayout layout(Integer columns, Integer rows) {
+        int c = columns == null ? DEFAULT_COLUMNS : columns;
+        int r = rows == null ? DEFAULT_ROWS : rows;
+        if (c < 1 || c > MAX_COLUMNS || r < 1 || r > MAX_ROWS) {
+            throw new RuntimeException("columns must be 1-" + MAX_COLUMNS + " and rows 1-" + MAX_ROWS);
+        }
+        return new SheetLayout(c, r);
+    }
+
+    /**
+     * Render the sheets and stream them out
+     * @param studentIds - students in print order
+     * @param layout - cards per page
+     * @param format - "pdf" or "png" (ZIP of page-NNN.png)
+     * @param out - response stream (not closed)
+     * @return number of pages written
+     */
+    public int writeSheets(List<String> studentIds, SheetLayout layout, String format,
+                           OutputStream out) throws IOException {
+        boolean pdf = !"png".equalsIgnoreCase(format);
+        int perPage = layout.getCardsPerPage();
+        // Pages are ~2 MB raw each, so keep the look-ahead short
+        int window = renderExecutor.getMaximumPoolSize() * 2;
+        long started = System.currentTimeMillis();
+
+        PdfSheetWriter pdfWriter = pdf ? new PdfSheetWriter(out, PAGE_WIDTH_PT, PAGE_HEIGHT_PT) : null;
+        ZipOutputStream zip = pdf ? null : new ZipOutputStream(out);
+
+        Deque<CompletableFuture<RenderedPage>> inFlight = new ArrayDeque<>(window);
+        int nextStart = 0;
+        int pages = 0;
+        try {
+            while (!inFlight.isEmpty() || nextStart < studentIds.size()) {
+                while (inFlight.size() < window && nextStart < studentIds.size()) {
+                    List<String> pageIds = studentIds.subList(nextStart, Math.min(nextStart + perPage, studentIds.size()));
+                    inFlight.add(CompletableFuture.supplyAsync(() -> renderPage(pageIds, layout, pdf), renderExecutor));
+                    nextStart += perPage;
+                }
+
+                RenderedPage page = inFlight.poll().get();
+                pages++;
+                if (pdf) {
+                    pdfWriter.addGrayImagePage(page.data, PAGE_WIDTH, PAGE_HEIGHT);
+                } else {
+                    ZipEntry entry = new ZipEntry(String.format("page-%03d.png", pages));
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(page.data.length);
+                    entry.setCompressedSize(page.data.length);
+                    entry.setCrc(page.crc);
+                    zip.putNextEntry(entry);
+                    zip.write(page.data);
+                    zip.closeEntry();
+                }
+                // Let the client start receiving finished pages
+                out.flush();
+            }
+
+            if (pdf) {
+                pdfWriter.finish();
+            } else {
+                zip.finish();
+                zip.flush();
+            }
+            System.out.println("✅ ID card sheets: " + pages + " pages (" + studentIds.size() + " cards) in "
+                    + (System.currentTimeMillis() - started) + " ms");
+            return pages;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("ID card sheet rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("ID card sheet rendering failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Draw one page and encode it (deflated raw gray for PDF, PNG otherwise)
+     */
+    private RenderedPage renderPage(List<String> studentIds, SheetLayout layout, boolean pdf) {
+        Map<String, Student> students = studentBatchResolver.resolve(studentIds);
+
+        BufferedImage image = new BufferedImage(PAGE_WIDTH, PAGE_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, PAGE_WIDTH, PAGE_HEIGHT);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            int cardWidth = (PAGE_WIDTH - 2 * PAGE_MARGIN - (layout.columns - 1) * CARD_GAP) / layout.columns;
+            int cardHeight = (PAGE_HEIGHT - 2 * PAGE_MARGIN - (layout.rows - 1) * CARD_GAP) / layout.rows;
+            for (int i = 0; i < studentIds.size(); i++) {
+                int x = PAGE_MARGIN + (i % layout.columns) * (cardWidth + CARD_GAP);
+                int y = PAGE_MARGIN + (i / layout.columns) * (cardHeight + CARD_GAP);
+                String studentId = studentIds.get(i);
+                drawCard(g, students.get(studentId), studentId, x, y, cardWidth, cardHeight);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        RenderedPage page = new RenderedPage();
+        try {
+            if (pdf) {
+                page.data = deflate(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+            } else {
+                ByteArrayOutputStream png = new ByteArrayOutputStream();
+                ImageIO.write(image, "PNG", png);
+                page.data = png.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(page.data);
+                page.crc = crc.getValue();
+            }
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        return page;
+    }
+
+    private void drawCard(Graphics2D g, Student student, String studentId, int x, int y, int width, int height) {
+        int padding = Math.max(8, height / 12);
+        int innerWidth = width - 2 * padding;
+
+        g.setColor(Color.GRAY);
+        g.setStroke(new BasicStroke(2f));
+        g.drawRoundRect(x, y, width, height, 24, 24);
+
+        // Name and program
+        g.setColor(Color.BLACK);
+        Font nameFont = new Font(Font.SANS_SERIF, Font.BOLD, Math.max(10, height / 8));
+        Font programFont = new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(9, height / 11));
+        Font idFont = new Font(Font.MONOSPACED, Font.BOLD, Math.max(9, height / 11));
+
+        int textY = y + padding;
+        g.setFont(nameFont);
+        FontMetrics metrics = g.getFontMetrics();
+        textY += metrics.getAscent();
+        g.drawString(fit(student != null ? student.getFullName() : studentId, metrics, innerWidth), x + padding, textY);
+
+        g.setFont(programFont);
+        metrics = g.getFontMetrics();
+        textY += metrics.getHeight();
+        g.setColor(Color.DARK_GRAY);
+        String program = student != null && student.getProgram() != null ? student.getProgram() : "";
+        g.drawString(fit(program, metrics, innerWidth), x + padding, textY);
+        textY += metrics.getDescent() + padding / 2;
+
+        // Student ID along the bottom, barcode in between
+        g.setFont(idFont);
+        FontMetrics idMetrics = g.getFontMetrics();
+        int idBaseline = y + height - padding;
+        int barcodeBottom = idBaseline - idMetrics.getAscent() - padding / 3;
+        g.setColor(Color.BLACK);
+        g.drawString(studentId, x + (width - idMetrics.stringWidth(studentId)) / 2, idBaseline);
+
+        if (barcodeBottom - textY > 8) {
+            drawBarcode(g, studentId, x + padding, textY, innerWidth, barcodeBottom - textY);
+        }
+    }
+
+    private void drawBarcode(Graphics2D g, String studentId, int x, int y, int width, int height) {
+        int[] runs;
+        try {
+            runs = barcodeService.generateBarRuns(studentId);
+        } catch (Exception e) {
+            g.drawString("barcode unavailable", x, y + height / 2);
+            return;
+        }
+        int totalModules = 2 * QUIET_ZONE_MODULES;
+        for (int run : runs) {
+            totalModules += run;
+        }
+        int module = Math.max(1, width / totalModules);
+        int barX = x + (width - module * totalModules) / 2 + QUIET_ZONE_MODULES * module;
+        for (int i = 0; i < runs.length; i++) {
+            if (i % 2 == 0) {
+                g.fillRect(barX, y, runs[i] * module, height);
+            }
+            barX += runs[i] * module;
+        }
+    }
+
+    /**
+     * Shorten text with an ellipsis to fit the card
+     */
+    private static String fit(String text, FontMetrics metrics, int maxWidth) {
+        if (metrics.stringWidth(text) <= maxWidth) {
+            return text;
+        }
+        int end = text.length();
+        while (end > 0 && metrics.stringWidth(text.substring(0, end) + "…") > maxWidth) {
+            end--;
+        }
+        return text.substring(0, end) + "…";
+    }
+
+    private static byte[] deflate(byte[] pixels) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(pixels);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(pixels.length / 16);
+            byte[] buffer = new byte[16384];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Cards-per-page grid
+     */
+    public static class SheetLayout {
+        private final int columns;
+        private final int rows;
+
+        SheetLayout(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        public int getColumns() { return columns; }
+        public int getRows() { return rows; }
+        public int getCardsPerPage() { return columns * rows; }
+    }
+
+    /**
+     * One encoded page waiting to be written
+     */
+    private static class RenderedPage {
+        private byte[] data;
+        private long crc;
+    }
+}
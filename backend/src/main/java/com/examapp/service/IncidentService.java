@@ -35,6 +35,9 @@ public class IncidentService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private ExamEventBroadcaster eventBroadcaster;
+
     @Value("${librarian.email}")
     private String adminEmail; // Admin/coordinator email for incident notifications
 
@@ -68,6 +71,7 @@ public class IncidentService {
         );
 
         Incident savedIncident = incidentRepository.save(incident);
+        eventBroadcaster.publishIncidentReported(savedIncident);
 
         // NEW: Send notification to admin/coordinator (no details, just alert)
         emailService.notifyIncidentReported(adminEmail, exam.getId());
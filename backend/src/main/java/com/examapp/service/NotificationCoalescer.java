@@ -0,0 +1,194 @@
+package com.examapp.service;
+
+import com.examapp.model.NotificationLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NotificationCoalescer - Collapses repeated notifications into digests
+ *
+ * Notifications with the same recipient, type and related entity (e.g., the
+ * coordinator's "incident reported" mails for one exam) share a window:
+ *
+ * - The first one is sent straight away (leading send)
+ * - Repeats within the window are only counted - no email, no log row
+ * - When the window ends, ONE digest says how many more there were, and a
+ *   new window starts; if nothing repeated, the window just closes
+ *
+ * So a steady stream of identical alerts costs at most one email per
+ * window instead of one per event. Window counts live in memory; on
+ * shutdown every pending digest is queued in the outbox so none is lost.
+ */
+@Component
+public class NotificationCoalescer {
+
+    @Autowired
+    private NotificationOutbox outbox;
+
+    @Value("${notification.coalesce.window-seconds:300}")
+    private long windowSeconds;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    // Metrics
+    private final AtomicLong sentImmediately = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong digests = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        List<NotificationLog> pending = new ArrayList<>();
+        for (String key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, window) -> {
+                if (window.repeats > 0) {
+                    pending.add(window.toDigest(windowSeconds));
+                }
+                return null;
+            });
+        }
+        if (!pending.isEmpty()) {
+            outbox.enqueueAll(pending);
+            digests.addAndGet(pending.size());
+            System.out.println("✅ Notification coalescer: " + pending.size() + " digests queued at shutdown");
+        }
+    }
+
+    /**
+     * Decide whether a notification goes out now
+     * @param log - notification about to be queued
+     * @return true to send it now; false if it was folded into the window's digest
+     */
+    public boolean admit(NotificationLog log) {
+        if (windowSeconds <= 0) {
+            sentImmediately.incrementAndGet();
+            return true;
+        }
+        String key = log.getRecipientEmail() + '|' + log.getNotificationType() + '|' + log.getRelatedEntityId();
+        boolean[] leading = new boolean[1];
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                leading[0] = true;
+                Window opened = new Window(log);
+                scheduleClose(k, opened);
+                return opened;
+            }
+            window.absorb(log);
+            return window;
+        });
+
+        if (leading[0]) {
+            sentImmediately.incrementAndGet();
+        } else {
+            coalesced.incrementAndGet();
+        }
+        return leading[0];
+    }
+
+    /**
+     * Coalescer statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("sentImmediately", sentImmediately.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("digests", digests.get());
+        metrics.put("openWindows", windows.size());
+        metrics.put("windowSeconds", windowSeconds);
+        return metrics;
+    }
+
+    private void scheduleClose(String key, Window window) {
+        scheduler.schedule(() -> closeWindow(key, window), windowSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * End of a window: queue the digest (if anything repeated) and keep the
+     * window going, or drop it if it stayed quiet
+     */
+    private void closeWindow(String key, Window window) {
+        NotificationLog[] digest = new NotificationLog[1];
+        windows.computeIfPresent(key, (k, current) -> {
+            if (current != window) {
+                return current;
+            }
+            if (window.repeats == 0) {
+                return null;
+            }
+            digest[0] = window.toDigest(windowSeconds);
+            window.repeats = 0;
+            scheduleClose(k, window);
+            return window;
+        });
+
+        if (digest[0] != null) {
+            try {
+                outbox.enqueue(digest[0]);
+                digests.incrementAndGet();
+            } catch (Exception e) {
+                System.err.println("❌ Could not queue notification digest: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Repeats seen for one (recipient, type, related entity) since the last email
+     * (only changed inside the map's compute, which locks the key)
+     */
+    private static class Window {
+        private NotificationLog latest;
+        private int repeats;
+
+        Window(NotificationLog first) {
+            this.latest = first;
+        }
+
+        void absorb(NotificationLog log) {
+            latest = log;
+            repeats++;
+        }
+
+        NotificationLog toDigest(long windowSeconds) {
+            NotificationLog digest = new NotificationLog();
+            digest.setRecipientEmail(latest.getRecipientEmail());
+            digest.setNotificationType(latest.getNotificationType());
+            digest.setRelatedEntityId(latest.getRelatedEntityId());
+            digest.setSubject(latest.getSubject() + " (" + repeats + " more)");
+            digest.setBody(repeats + (repeats == 1 ? " more notification" : " more notifications")
+                    + " of this kind in the last " + describe(windowSeconds) + ".\n\n"
+                    + latest.getBody());
+            return digest;
+        }
+
+        private static String describe(long seconds) {
+            if (seconds % 60 != 0) {
+                return seconds + " seconds";
+            }
+            long minutes = seconds / 60;
+            return minutes == 1 ? "minute" : minutes + " minutes";
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.examapp.service;
+
+import com.examapp.model.NotificationLog;
+import com.examapp.repository.NotificationLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * NotificationOutbox - Durable email outbox (at-least-once delivery)
+ *
+ * Callers only insert a PENDING NotificationLog row; nothing waits for SMTP.
+ * A dispatcher thread claims due rows (marks them SENDING) and hands them to
+ * the notification pool in batches, never more than max-in-flight at a time.
+ * Each batch goes out over one pooled connection (SmtpDeliveryEngine).
+ *
+ * - Success: SUCCESS, sentAt = when it was delivered
+ * - Failure: back to PENDING with exponential backoff
+ *   (base-backoff, doubled per attempt, capped at max-backoff)
+ * - After max-attempts failures: FAILED
+ *
+ * Rows are in the database, so queued mail survives a restart. Rows still
+ * SENDING at startup (the app stopped mid-send) go back to PENDING - an
+ * email may then be sent twice, but never lost.
+ */
+@Component
+public class NotificationOutbox {
+
+    @Autowired
+    private NotificationLogRepository notificationLogRepository;
+
+    @Autowired
+    private SmtpDeliveryEngine deliveryEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("notificationExecutor")
+    private ThreadPoolExecutor notificationExecutor;
+
+    @Value("${notification.outbox.max-in-flight:100}")
+    private int maxInFlight;
+
+    @Value("${notification.smtp.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${notification.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.base-backoff-ms:5000}")
+    private long baseBackoffMs;
+
+    @Value("${notification.outbox.max-backoff-ms:600000}")
+    private long maxBackoffMs;
+
+    private Semaphore inFlight;
+    private TransactionTemplate transactionTemplate;
+    private Thread dispatcherThread;
+    private volatile boolean running;
+    private final Object wakeUp = new Object();
+    private boolean signalled; // guarded by wakeUp
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long recovered;
+
+    @PostConstruct
+    public void init() {
+        inFlight = new Semaphore(maxInFlight);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Integer reset = transactionTemplate.execute(tx -> notificationLogRepository.resetInterruptedSends());
+        recovered = reset != null ? reset : 0;
+        if (recovered > 0) {
+            System.out.println("✅ Notification outbox: " + recovered + " interrupted sends queued again");
+        }
+
+        running = true;
+        dispatcherThread = new Thread(this::dispatchLoop, "notification-outbox");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+        }
+    }
+
+    /**
+     * Queue one email (a single insert - returns without waiting for SMTP)
+     * @param log - notification with recipient, subject, body and type set
+     */
+    public void enqueue(NotificationLog log) {
+        notificationLogRepository.save(asPending(log));
+        enqueued.incrementAndGet();
+        signal();
+    }
+
+    /**
+     * Queue many emails in one transaction (e.g., an offline attendance batch)
+     */
+    public void enqueueAll(List<NotificationLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        logs.forEach(this::asPending);
+        transactionTemplate.execute(tx -> notificationLogRepository.saveAll(logs));
+        enqueued.addAndGet(logs.size());
+        signal();
+    }
+
+    /**
+     * Outbox statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("enqueued", enqueued.get());
+        metrics.put("sent", sent.get());
+        metrics.put("retried", retried.get());
+        metrics.put("failed", failed.get());
+        metrics.put("recoveredAtStartup", recovered);
+        metrics.put("pending", notificationLogRepository.countByStatus("PENDING"));
+        metrics.put("inFlight", maxInFlight - inFlight.availablePermits());
+        metrics.put("maxInFlight", maxInFlight);
+        return metrics;
+    }
+
+    private NotificationLog asPending(NotificationLog log) {
+        log.setStatus("PENDING");
+        log.setAttempts(0);
+        log.setNextAttemptAt(null);
+        return log;
+    }
+
+    private void signal() {
+        synchronized (wakeUp) {
+            signalled = true;
+            wakeUp.notifyAll();
+        }
+    }
+
+    /**
+     * Dispatcher: claim due rows (as many as there are free slots), hand them
+     * to the pool, then sleep until new mail is queued or the poll interval passes
+     */
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                int claimed = 0;
+                int free = inFlight.availablePermits();
+                if (free > 0) {
+                    claimed = claimAndSubmit(free);
+                }
+                if (claimed < free || free == 0) {
+                    synchronized (wakeUp) {
+                        if (!signalled) {
+                            wakeUp.wait(pollIntervalMs);
+                        }
+                        signalled = false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("❌ Notification outbox dispatch failed: " + e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private int claimAndSubmit(int limit) throws InterruptedException {
+        // Read before the write transaction (SQLite)
+        List<NotificationLog> due = notificationLogRepository.findDuePending(
+                LocalDateTime.now(), PageRequest.of(0, limit));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = due.stream().map(NotificationLog::getId).collect(Collectors.toList());
+        transactionTemplate.execute(tx -> notificationLogRepository.markSending(ids));
+
+        // Each task sends a batch over one pooled SMTP connection
+        for (int start = 0; start < due.size(); start += batchSize) {
+            List<NotificationLog> batch = due.subList(start, Math.min(start + batchSize, due.size()));
+            inFlight.acquire(batch.size());
+            notificationExecutor.execute(() -> {
+                try {
+                    deliver(batch);
+                } finally {
+                    inFlight.release(batch.size());
+                    signal();
+                }
+            });
+        }
+        return due.size();
+    }
+
+    /**
+     * Send a batch of claimed notifications and record each outcome
+     */
+    private void deliver(List<NotificationLog> batch) {
+        List<Exception> outcomes;
+        try {
+            outcomes = deliveryEngine.sendBatch(batch);
+        } catch (InterruptedException e) {
+            // Shutting down - rows stay SENDING and are queued again at startup
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            recordOutcome(batch.get(i), outcomes.get(i));
+        }
+    }
+
+    private void recordOutcome(NotificationLog log, Exception failure) {
+        int attempt = (log.getAttempts() != null ? log.getAttempts() : 0) + 1;
+        log.setAttempts(attempt);
+        if (failure == null) {
+            log.setStatus("SUCCESS");
+            log.setSentAt(LocalDateTime.now());
+            log.setErrorMessage(null);
+            log.setNextAttemptAt(null);
+            sent.incrementAndGet();
+            System.out.println("✅ Email sent: " + log.getNotificationType() + " to " + log.getRecipientEmail());
+
+        } else {
+            log.setErrorMessage(failure.getMessage());
+            if (attempt >= maxAttempts) {
+                log.setStatus("FAILED");
+                log.setNextAttemptAt(null);
+                failed.incrementAndGet();
+                System.err.println("❌ Email to " + log.getRecipientEmail() + " failed after "
+                        + attempt + " attempts: " + failure.getMessage());
+            } else {
+                long backoff = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+                log.setStatus("PENDING");
+                log.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000L));
+                retried.incrementAndGet();
+                System.err.println("❌ Failed to send email (attempt " + attempt + ", retry in "
+                        + (backoff / 1000) + " s): " + failure.getMessage());
+            }
+        }
+
+        try {
+            transactionTemplate.execute(tx -> notificationLogRepository.recordAttempt(log.getId(), log.getStatus(),
+                    log.getAttempts(), log.getNextAttemptAt(), log.getErrorMessage(), log.getSentAt()));
+        } catch (Exception e) {
+            // Row stays SENDING and is retried after the next restart
+            System.err.println("❌ Could not record email outcome: " + e.getMessage());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.examapp.service;
+
+import com.examapp.model.BarcodeScan;
+import com.examapp.model.Exam;
+import com.examapp.repository.BarcodeScanRepository;
+import com.examapp.repository.ExamRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ScanAuditWriter - Write-behind pipeline for BarcodeScan audit logs
+ *
+ * Scan requests only drop their audit record into a bounded queue.
+ * A single writer thread drains the queue and inserts the records in
+ * JDBC batches (one transaction per batch), so scan latency no longer
+ * waits on the SQLite writer lock.
+ *
+ * A scan request never writes to, waits on or fails because of the database:
+ *
+ * - Backpressure: if the queue stays full for longer than the offer
+ *   timeout, the record goes to the dead-letter file instead
+ * - Failures: the writer thread retries a failed batch with exponential
+ *   backoff (batch-attempts times); if it still fails, the batch is split
+ *   in halves until the bad rows are isolated, and those go to the
+ *   dead-letter file - one bad record never stalls the pipeline
+ *
+ * The dead-letter file has one tab-separated line per record, so nothing
+ * is lost silently and rows can be re-imported by hand.
+ * Shutdown: the writer is interrupted (no waiting out a backoff) and the
+ * queue is drained before the application stops; a batch that fails then
+ * goes to the dead-letter file.
+ */
+@Component
+public class ScanAuditWriter {
+
+    @Autowired
+    private BarcodeScanRepository barcodeScanRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${barcode.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${barcode.audit.flush-size:100}")
+    private int flushSize;
+
+    @Value("${barcode.audit.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${barcode.audit.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${barcode.audit.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${barcode.audit.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${barcode.audit.batch-attempts:6}")
+    private int batchAttempts;
+
+    @Value("${barcode.audit.dead-letter-file:barcode-audit-dead-letter.log}")
+    private String deadLetterFile;
+
+    private BlockingQueue<PendingScan> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    // Metrics
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong splits = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private volatile long lastFlushMillis;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+
+        writerThread = new Thread(this::drainLoop, "barcode-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a scan record for writing
+     * @param scan - audit record (exam may be null)
+     * @param examId - exam ID to attach if the exam entity was not loaded
+     */
+    public void submit(BarcodeScan scan, Long examId) {
+        enqueued.incrementAndGet();
+        offer(new PendingScan(scan, examId));
+    }
+
+    /**
+     * Queue several scan records (e.g., a replayed offline batch); the writer
+     * thread inserts them in flush-size batches
+     */
+    public void submitAll(List<BarcodeScan> scans) {
+        enqueued.addAndGet(scans.size());
+        for (BarcodeScan scan : scans) {
+            offer(new PendingScan(scan, null));
+        }
+    }
+
+    private void offer(PendingScan pending) {
+        boolean accepted = false;
+        if (running) {
+            try {
+                accepted = queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (accepted) {
+            maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        } else {
+            // Queue full (or shutting down) - keep the record without touching the database
+            overflowed.incrementAndGet();
+            deadLetter(List.of(pending), "audit queue full");
+        }
+    }
+
+    /**
+     * Writer thread: wait for the first record, then keep collecting until
+     * the batch is full or the flush interval has passed
+     */
+    private void drainLoop() {
+        List<PendingScan> batch = new ArrayList<>(flushSize);
+
+        while (running) {
+            try {
+                PendingScan first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < flushSize && running) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long wait = deadline - System.currentTimeMillis();
+                    if (batch.size() >= flushSize || wait <= 0) {
+                        break;
+                    }
+                    PendingScan next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Shutdown requested - remaining records are flushed below
+                break;
+            }
+        }
+
+        // Clear the shutdown wake-up so it cannot abort the final writes
+        Thread.interrupted();
+        if (!batch.isEmpty()) {
+            write(batch);
+            batch.clear();
+        }
+        flushRemaining();
+    }
+
+    private void flushRemaining() {
+        List<PendingScan> remaining = new ArrayList<>(flushSize);
+        while (queue.drainTo(remaining, flushSize) > 0) {
+            write(remaining);
+            remaining.clear();
+        }
+    }
+
+    /**
+     * Write a batch, retrying with exponential backoff; if it still fails,
+     * isolate the bad rows. Once shutdown has started a failed batch goes
+     * straight to the dead-letter file (no backoff, no split - each attempt
+     * can wait out SQLite's busy timeout).
+     */
+    private void write(List<PendingScan> batch) {
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeBatch(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    resetIds(batch);
+                    deadLetter(batch, "shutting down: " + e.getMessage());
+                    return;
+                }
+                if (attempt >= batchAttempts) {
+                    split(batch, e);
+                    return;
+                }
+                retries.incrementAndGet();
+                System.err.println("❌ Failed to write " + batch.size() + " barcode scan audit records (attempt "
+                        + attempt + ", retry in " + backoff + " ms): " + e.getMessage());
+                resetIds(batch);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    // Shutdown: running is false, so the next failure goes straight to split
+                }
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    /**
+     * Write each half of a failed batch once, splitting again on failure,
+     * so only the rows that fail on their own end up in the dead-letter file
+     */
+    private void split(List<PendingScan> batch, RuntimeException error) {
+        resetIds(batch);
+        if (batch.size() == 1) {
+            deadLetter(batch, error.getMessage());
+            return;
+        }
+        splits.incrementAndGet();
+        int middle = batch.size() / 2;
+        for (List<PendingScan> half : List.of(batch.subList(0, middle), batch.subList(middle, batch.size()))) {
+            try {
+                writeBatch(half);
+            } catch (RuntimeException e) {
+                split(half, e);
+            }
+        }
+    }
+
+    /**
+     * The transaction rolled back - insert again with fresh IDs
+     */
+    private void resetIds(List<PendingScan> batch) {
+        batch.forEach(pending -> pending.scan.setId(null));
+    }
+
+    /**
+     * Append records that could not be written to the database to the
+     * dead-letter file (one tab-separated line each)
+     */
+    private synchronized void deadLetter(List<PendingScan> records, String reason) {
+        deadLettered.addAndGet(records.size());
+        StringBuilder lines = new StringBuilder();
+        for (PendingScan pending : records) {
+            BarcodeScan scan = pending.scan;
+            Long examId = scan.getExam() != null ? scan.getExam().getId() : pending.examId;
+            lines.append(String.join("\t",
+                    String.valueOf(LocalDateTime.now()),
+                    String.valueOf(scan.getScanTimestamp()),
+                    String.valueOf(scan.getClientTimestamp()),
+                    String.valueOf(scan.getScannedBy()),
+                    String.valueOf(scan.getScannedBarcode()),
+                    String.valueOf(examId),
+                    String.valueOf(scan.getStudent() != null ? scan.getStudent().getId() : null),
+                    String.valueOf(scan.getValidationStatus()),
+                    oneLine(scan.getErrorMessage()),
+                    oneLine(reason))).append('\n');
+        }
+        Path path = Paths.get(deadLetterFile);
+        try {
+            Files.writeString(path, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.err.println("❌ " + records.size() + " barcode scan audit records written to " + path
+                    + " (" + reason + ")");
+        } catch (IOException e) {
+            System.err.println("❌ Could not write dead-letter file " + path + ": " + e.getMessage()
+                    + " - lost audit records:\n" + lines);
+        }
+    }
+
+    private static String oneLine(String value) {
+        return value == null ? "null" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Insert one batch in a single transaction.
+     * Exams that were not loaded by the scan are resolved with one query per batch,
+     * BEFORE the transaction starts: on SQLite an open read would block
+     * Hibernate's id generator, which writes on its own connection.
+     */
+    private void writeBatch(List<PendingScan> batch) {
+        long started = System.currentTimeMillis();
+        try {
+            Set<Long> missingExamIds = batch.stream()
+                    .filter(p -> p.scan.getExam() == null && p.examId != null)
+                    .map(p -> p.examId)
+                    .collect(Collectors.toSet());
+
+            if (!missingExamIds.isEmpty()) {
+                Map<Long, Exam> exams = examRepository.findAllById(missingExamIds).stream()
+                        .collect(Collectors.toMap(Exam::getId, Function.identity()));
+                for (PendingScan pending : batch) {
+                    if (pending.scan.getExam() == null && pending.examId != null) {
+                        pending.scan.setExam(exams.get(pending.examId));
+                    }
+                }
+            }
+
+            List<BarcodeScan> scans = batch.stream().map(p -> p.scan).collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> barcodeScanRepository.saveAll(scans));
+
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } finally {
+            lastFlushMillis = System.currentTimeMillis() - started;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            // Wake the writer from a poll or a retry backoff; it then flushes what is queued
+            writerThread.interrupt();
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Records submitted while the writer was finishing
+        flushRemaining();
+        System.out.println("✅ Barcode audit writer flushed (" + written.get() + " records written)");
+    }
+
+    /**
+     * Pipeline metrics (queue depth and backpressure)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queueCapacity);
+        metrics.put("maxQueueDepth", maxQueueDepth.get());
+        metrics.put("enqueued", enqueued.get());
+        metrics.put("written", written.get());
+        metrics.put("batchesWritten", batches.get());
+        metrics.put("overflowed", overflowed.get());
+        metrics.put("retries", retries.get());
+        metrics.put("splits", splits.get());
+        metrics.put("deadLettered", deadLettered.get());
+        metrics.put("flushSize", flushSize);
+        metrics.put("flushIntervalMs", flushIntervalMs);
+        metrics.put("lastFlushMillis", lastFlushMillis);
+        return metrics;
+    }
+
+    /**
+     * Audit record waiting to be written
+     */
+    private static class PendingScan {
+        private final BarcodeScan scan;
+        private final Long examId;
+
+        PendingScan(BarcodeScan scan, Long examId) {
+            this.scan = scan;
+            this.examId = examId;
+        }
+    }
+}
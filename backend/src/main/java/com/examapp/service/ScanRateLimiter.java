@@ -0,0 +1,164 @@
+package com.examapp.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ScanRateLimiter - In-memory sliding-window rate limiter for barcode scans
+ *
+ * Each invigilator gets a ring buffer holding the timestamps of their last
+ * N accepted scans (N = scans allowed per window). A new scan is accepted
+ * only if the OLDEST timestamp in the ring is outside the window, i.e. fewer
+ * than N scans happened in the last minute.
+ *
+ * Lock-free: slots are claimed with a CAS on the ring cursor, so concurrent
+ * scans from the same invigilator never block each other and no database
+ * query is needed on the scan path.
+ *
+ * Replayed scans (an offline queue) go through the SAME window, at their
+ * device time clamped to [last accepted scan, now]: a device clock can only
+ * spend quota that went unused since the invigilator's last scan (or since
+ * their window was created, after a restart), and the ring stays in time
+ * order.
+ */
+@Component
+public class ScanRateLimiter {
+
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    /** Result of acquireReplay for a scan over the limit */
+    public static final long REJECTED = -1L;
+
+    private final Map<String, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Try to record one scan for an invigilator
+     * @param username - invigilator's username
+     * @param maxPerWindow - scans allowed per minute
+     * @return true if the scan is allowed, false if the limit is reached
+     */
+    public boolean tryAcquire(String username, int maxPerWindow) {
+        long now = System.currentTimeMillis();
+        return windowFor(username, maxPerWindow).tryAcquire(now, now) != REJECTED;
+    }
+
+    /**
+     * Record replayed scans (an offline queue) in the invigilator's window,
+     * each at its device time clamped to [last accepted scan, now]
+     * (callers reject device times in the future first)
+     * @param username - invigilator's username
+     * @param clientTimestamps - device time of each scan (epoch millis)
+     * @param maxPerWindow - scans allowed per minute
+     * @return one entry per scan, in the same order: the time it was counted at, or REJECTED
+     */
+    public long[] acquireReplay(String username, long[] clientTimestamps, int maxPerWindow) {
+        // Queued scans may arrive out of order - replay them in device time order
+        Integer[] order = new Integer[clientTimestamps.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> clientTimestamps[i]));
+
+        SlidingWindow window = windowFor(username, maxPerWindow);
+        long now = System.currentTimeMillis();
+        long[] countedAt = new long[clientTimestamps.length];
+        for (int index : order) {
+            countedAt[index] = window.tryAcquire(clientTimestamps[index], now);
+        }
+        return countedAt;
+    }
+
+    /**
+     * Count accepted scans for an invigilator in the last minute
+     */
+    public int countInWindow(String username) {
+        SlidingWindow window = windows.get(username);
+        return window == null ? 0 : window.countSince(System.currentTimeMillis() - WINDOW_MILLIS);
+    }
+
+    /**
+     * Current limiter state for one invigilator (for monitoring)
+     */
+    public Map<String, Object> getState(String username, int maxPerWindow) {
+        SlidingWindow window = windows.get(username);
+        int inWindow = countInWindow(username);
+
+        Map<String, Object> state = new HashMap<>();
+        state.put("scansLastMinute", inWindow);
+        state.put("remainingThisMinute", Math.max(0, maxPerWindow - inWindow));
+        state.put("acceptedTotal", window == null ? 0 : window.accepted.get());
+        state.put("rejectedTotal", window == null ? 0 : window.rejected.get());
+        return state;
+    }
+
+    private SlidingWindow windowFor(String username, int maxPerWindow) {
+        SlidingWindow window = windows.get(username);
+        if (window == null || window.capacity() != maxPerWindow) {
+            window = windows.compute(username, (key, existing) ->
+                    existing != null && existing.capacity() == maxPerWindow ? existing : new SlidingWindow(maxPerWindow));
+        }
+        return window;
+    }
+
+    /**
+     * Ring buffer of the last N accepted scan timestamps for one invigilator
+     */
+    private static class SlidingWindow {
+        private final AtomicLongArray timestamps;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final long createdAt = System.currentTimeMillis();
+
+        SlidingWindow(int capacity) {
+            this.timestamps = new AtomicLongArray(capacity);
+        }
+
+        int capacity() {
+            return timestamps.length();
+        }
+
+        /**
+         * Count a scan at the given time, never later than now and never
+         * before the last accepted scan (or the window's creation)
+         * @return the time the scan was counted at, or REJECTED
+         */
+        long tryAcquire(long scanTime, long now) {
+            while (true) {
+                long current = cursor.get();
+                int slot = (int) (current % timestamps.length());
+                long last = current == 0 ? createdAt : timestamps.get((int) ((current - 1) % timestamps.length()));
+                long at = Math.max(Math.min(scanTime, now), last);
+
+                // The slot we would overwrite holds the oldest of the last N scans
+                if (at - timestamps.get(slot) < WINDOW_MILLIS) {
+                    rejected.incrementAndGet();
+                    return REJECTED;
+                }
+
+                if (cursor.compareAndSet(current, current + 1)) {
+                    timestamps.set(slot, at);
+                    accepted.incrementAndGet();
+                    return at;
+                }
+            }
+        }
+
+        int countSince(long since) {
+            int count = 0;
+            for (int i = 0; i < timestamps.length(); i++) {
+                if (timestamps.get(i) >= since) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
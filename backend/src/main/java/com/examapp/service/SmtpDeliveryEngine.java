@@ -0,0 +1,236 @@
+package com.examapp.service;
+
+import com.examapp.model.NotificationLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SmtpDeliveryEngine - Sends emails over a small pool of long-lived SMTP connections
+ *
+ * JavaMailSender.send opens a new connection (and STARTTLS + AUTH handshake)
+ * for every call. Here each worker borrows an already authenticated
+ * Transport, sends a whole batch of messages over it and returns it to the
+ * pool, so a burst of 300 notifications costs a couple of handshakes.
+ *
+ * Connections are reopened when:
+ * - they have been idle longer than max-idle-ms (servers drop idle clients)
+ * - a send fails and the connection turns out to be dead - the message is
+ *   then retried once on a fresh connection
+ *
+ * A failure that is about one message (e.g., a rejected recipient) only
+ * fails that message; the rest of the batch goes out on the same connection.
+ */
+@Component
+public class SmtpDeliveryEngine {
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Value("${notification.smtp.pool-size:2}")
+    private int poolSize;
+
+    @Value("${notification.smtp.max-idle-ms:30000}")
+    private long maxIdleMs;
+
+    private BlockingQueue<PooledTransport> idle;
+    private Semaphore permits;
+
+    // Metrics
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesFailed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong connectionsReused = new AtomicLong();
+    private final AtomicLong idleReconnects = new AtomicLong();
+    private final AtomicLong brokenReconnects = new AtomicLong();
+    private final AtomicLong sendingNanos = new AtomicLong();
+    private volatile double lastBatchPerSecond;
+
+    @PostConstruct
+    public void init() {
+        idle = new ArrayBlockingQueue<>(poolSize);
+        permits = new Semaphore(poolSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            closeQuietly(pooled);
+        }
+    }
+
+    /**
+     * Send a batch of emails over one pooled connection
+     * @param logs - queued notifications (recipient, subject, body)
+     * @return one entry per message, in order: null if sent, otherwise the failure
+     */
+    public List<Exception> sendBatch(List<NotificationLog> logs) throws InterruptedException {
+        List<Exception> outcomes = new ArrayList<>(logs.size());
+        permits.acquire();
+        PooledTransport pooled = null;
+        long started = System.nanoTime();
+        int sent = 0;
+        try {
+            pooled = borrow();
+            for (NotificationLog log : logs) {
+                MimeMessage message;
+                try {
+                    message = toMimeMessage(log);
+                } catch (MessagingException | RuntimeException e) {
+                    outcomes.add(e);
+                    continue;
+                }
+                try {
+                    pooled.transport.sendMessage(message, message.getAllRecipients());
+                } catch (MessagingException | IllegalStateException e) {
+                    if (pooled.transport.isConnected()) {
+                        // Problem with this message, not the connection
+                        outcomes.add(e);
+                        continue;
+                    }
+                    // Connection dropped - reconnect and retry this message once
+                    brokenReconnects.incrementAndGet();
+                    closeQuietly(pooled);
+                    pooled = null; // not returned to the pool if reconnecting fails
+                    pooled = open();
+                    try {
+                        pooled.transport.sendMessage(message, message.getAllRecipients());
+                    } catch (MessagingException | IllegalStateException retryFailure) {
+                        outcomes.add(retryFailure);
+                        continue;
+                    }
+                }
+                outcomes.add(null);
+                sent++;
+            }
+        } catch (MessagingException e) {
+            // Could not (re)connect - everything not sent yet fails
+            while (outcomes.size() < logs.size()) {
+                outcomes.add(e);
+            }
+        } finally {
+            if (pooled != null) {
+                pooled.lastUsedMillis = System.currentTimeMillis();
+                idle.offer(pooled);
+            }
+            permits.release();
+        }
+
+        long elapsed = System.nanoTime() - started;
+        sendingNanos.addAndGet(elapsed);
+        batches.incrementAndGet();
+        messagesSent.addAndGet(sent);
+        messagesFailed.addAndGet(logs.size() - sent);
+        lastBatchPerSecond = elapsed > 0 ? sent * 1_000_000_000.0 / elapsed : 0;
+        return outcomes;
+    }
+
+    /**
+     * Delivery statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        long sent = messagesSent.get();
+        long opened = connectionsOpened.get();
+        double sendingSeconds = sendingNanos.get() / 1_000_000_000.0;
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("messagesSent", sent);
+        metrics.put("messagesFailed", messagesFailed.get());
+        metrics.put("batches", batches.get());
+        metrics.put("connectionsOpened", opened);
+        metrics.put("connectionsReused", connectionsReused.get());
+        metrics.put("idleReconnects", idleReconnects.get());
+        metrics.put("brokenReconnects", brokenReconnects.get());
+        metrics.put("messagesPerConnection", opened > 0 ? (double) sent / opened : 0.0);
+        metrics.put("messagesPerSecond", sendingSeconds > 0 ? sent / sendingSeconds : 0.0);
+        metrics.put("lastBatchMessagesPerSecond", lastBatchPerSecond);
+        metrics.put("idleConnections", idle.size());
+        metrics.put("poolSize", poolSize);
+        return metrics;
+    }
+
+    /**
+     * Take an idle connection if there is a usable one, otherwise open a new one
+     */
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport pooled = idle.poll();
+        if (pooled != null) {
+            if (System.currentTimeMillis() - pooled.lastUsedMillis > maxIdleMs) {
+                idleReconnects.incrementAndGet();
+                closeQuietly(pooled);
+            } else if (pooled.transport.isConnected()) {
+                connectionsReused.incrementAndGet();
+                return pooled;
+            } else {
+                brokenReconnects.incrementAndGet();
+                closeQuietly(pooled);
+            }
+        }
+        return open();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(
+                mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword());
+        connectionsOpened.incrementAndGet();
+        return new PooledTransport(transport);
+    }
+
+    private MimeMessage toMimeMessage(NotificationLog log) throws MessagingException {
+        SimpleMailMessage simple = new SimpleMailMessage();
+        simple.setTo(log.getRecipientEmail());
+        simple.setSubject(log.getSubject());
+        simple.setText(log.getBody());
+
+        MimeMailMessage mime = new MimeMailMessage(mailSender.createMimeMessage());
+        simple.copyTo(mime);
+        MimeMessage message = mime.getMimeMessage();
+        message.saveChanges();
+        return message;
+    }
+
+    private void closeQuietly(PooledTransport pooled) {
+        if (pooled == null) {
+            return;
+        }
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            // Already gone
+        }
+    }
+
+    /**
+     * An open SMTP connection and when it was last used
+     */
+    private static class PooledTransport {
+        private final Transport transport;
+        private long lastUsedMillis;
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+            this.lastUsedMillis = System.currentTimeMillis();
+        }
+    }
+}
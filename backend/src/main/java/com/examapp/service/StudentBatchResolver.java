@@ -0,0 +1,103 @@
+package com.examapp.service;
+
+import com.examapp.model.Student;
+import com.examapp.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StudentBatchResolver - Resolves many student IDs at once
+ *
+ * Lookup order:
+ * 1. StudentDirectory (in memory, no queries) once it has loaded
+ * 2. StudentLookupCache (students already looked up recently)
+ * 3. Chunked findByStudentIdIn queries for the rest - a 500-ID batch
+ *    is one query, not 500 - and the results are cached
+ */
+@Component
+public class StudentBatchResolver {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentDirectory studentDirectory;
+
+    @Autowired
+    private StudentLookupCache studentLookupCache;
+
+    @Value("${student.batch.query-chunk-size:500}")
+    private int chunkSize;
+
+    // Metrics
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong studentsRequested = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    /**
+     * Resolve student IDs to students
+     * @param studentIds - student IDs (duplicates and nulls are ignored)
+     * @return found students by student ID (unknown IDs are left out)
+     */
+    public Map<String, Student> resolve(Collection<String> studentIds) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String studentId : studentIds) {
+            if (studentId != null) {
+                requested.add(studentId);
+            }
+        }
+        batches.incrementAndGet();
+        studentsRequested.addAndGet(requested.size());
+
+        Map<String, Student> found = new HashMap<>();
+        if (studentDirectory.isLoaded()) {
+            for (String studentId : requested) {
+                studentDirectory.findByStudentId(studentId).ifPresent(student -> found.put(studentId, student));
+            }
+            return found;
+        }
+
+        Set<String> unresolved = studentLookupCache.findCached(requested, found);
+        if (unresolved.isEmpty()) {
+            return found;
+        }
+
+        // Keep each IN list well under SQLite's bound-parameter limit
+        Map<String, Student> loaded = new HashMap<>();
+        List<String> pending = new ArrayList<>(unresolved);
+        for (int i = 0; i < pending.size(); i += chunkSize) {
+            List<String> chunk = pending.subList(i, Math.min(i + chunkSize, pending.size()));
+            queries.incrementAndGet();
+            for (Student student : studentRepository.findByStudentIdIn(chunk)) {
+                loaded.put(student.getStudentId(), student);
+            }
+        }
+        unresolved.removeAll(loaded.keySet());
+        studentLookupCache.putAll(loaded, unresolved);
+
+        found.putAll(loaded);
+        return found;
+    }
+
+    /**
+     * Resolver statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("batches", batches.get());
+        metrics.put("studentsRequested", studentsRequested.get());
+        metrics.put("queries", queries.get());
+        metrics.put("chunkSize", chunkSize);
+        return metrics;
+    }
+}
@@ -0,0 +1,27 @@
+package com.examapp.service;
+
+import java.util.List;
+
+/**
+ * StudentDataChangedEvent - published after a student sync or direct DB import
+ *
+ * Students are READ-ONLY in this app, so in-memory copies (lookup cache,
+ * student directory) only need refreshing when this event is published.
+ * An empty list means "everything may have changed".
+ */
+public class StudentDataChangedEvent {
+
+    private final List<String> studentIds;
+
+    public StudentDataChangedEvent(List<String> studentIds) {
+        this.studentIds = studentIds == null ? List.of() : List.copyOf(studentIds);
+    }
+
+    public List<String> getStudentIds() {
+        return studentIds;
+    }
+
+    public boolean isFullRefresh() {
+        return studentIds.isEmpty();
+    }
+}
@@ -0,0 +1,313 @@
+package com.examapp.service;
+
+import com.examapp.model.Student;
+import com.examapp.repository.StudentRepository;
+import com.examapp.repository.StudentRepository.DirectoryView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StudentDirectory - Compact in-memory directory of ALL students
+ *
+ * Lets barcode validation resolve any student on campus without touching
+ * the database. Instead of keeping 60k+ Student entities on the heap, the
+ * directory stores one row per student in primitive-array columns:
+ *
+ * - studentId (e.g., "BCS25165336") packed into a long (base-37, up to 12 chars),
+ *   kept sorted for binary search
+ * - database id, registration date, verified flag as primitive columns
+ * - full name and email as UTF-8 bytes in one shared byte[]
+ *   (empty = null in the database)
+ * - program as an index into a small dictionary (programs repeat a lot,
+ *   -1 = null in the database)
+ *
+ * IDs that cannot be packed (lowercase, symbols, > 12 chars) go to a small
+ * overflow map. Finding a student's slot allocates nothing, so misses are
+ * free; a hit builds one detached Student, because the scan response, the
+ * audit record and the attendance record all need one.
+ *
+ * The whole directory is rebuilt and swapped atomically on startup and when
+ * a StudentDataChangedEvent is published.
+ */
+@Component
+public class StudentDirectory {
+
+    private static final int MAX_PACKED_LENGTH = 12;
+    private static final long NOT_PACKABLE = -1L;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Value("${student.directory.page-size:2000}")
+    private int pageSize;
+
+    private volatile Snapshot snapshot;
+
+    // Metrics
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastLoadMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @EventListener
+    public void onStudentDataChanged(StudentDataChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Rebuild the directory from the database and swap it in
+     */
+    public synchronized void reload() {
+        long started = System.currentTimeMillis();
+        List<DirectoryView> students = new ArrayList<>();
+
+        // Keyset-paged projections: only the directory's columns, no managed entities
+        long lastId = 0;
+        List<DirectoryView> page;
+        do {
+            page = studentRepository.findDirectoryByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize));
+            students.addAll(page);
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+
+        snapshot = Snapshot.build(students);
+        lastLoadMillis = System.currentTimeMillis() - started;
+        System.out.println("✅ Student directory loaded: " + students.size() + " students in " + lastLoadMillis + " ms");
+    }
+
+    /**
+     * Check if the directory has been loaded (before that, callers use the database)
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Resolve a scanned barcode to a (detached, read-only) Student
+     * @param barcode - scanned student ID
+     * @return student if found, empty otherwise
+     */
+    public Optional<Student> findByStudentId(String barcode) {
+        Snapshot current = snapshot;
+        if (current == null || barcode == null) {
+            return Optional.empty();
+        }
+        lookups.increment();
+        int slot = current.slotOf(barcode);
+        if (slot < 0) {
+            misses.increment();
+            return Optional.empty();
+        }
+        return Optional.of(current.toStudent(slot));
+    }
+
+    /**
+     * Directory statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Snapshot current = snapshot;
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("loaded", current != null);
+        metrics.put("students", current == null ? 0 : current.size());
+        metrics.put("overflowIds", current == null ? 0 : current.overflow.size());
+        metrics.put("programs", current == null ? 0 : current.programs.length);
+        metrics.put("columnBytes", current == null ? 0 : current.columnBytes());
+        metrics.put("lookups", lookups.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("lastLoadMillis", lastLoadMillis);
+        return metrics;
+    }
+
+    /**
+     * Pack a student ID into a long: each char of [0-9A-Z] becomes a base-37
+     * digit (0 is padding), so up to 12 chars fit in 63 bits.
+     * @return packed value, or -1 if the ID cannot be packed
+     */
+    static long pack(String studentId) {
+        int length = studentId.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return NOT_PACKABLE;
+        }
+        long packed = 0;
+        for (int i = 0; i < length; i++) {
+            char c = studentId.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = 1 + (c - '0');
+            } else if (c >= 'A' && c <= 'Z') {
+                digit = 11 + (c - 'A');
+            } else {
+                return NOT_PACKABLE;
+            }
+            packed = packed * 37 + digit;
+        }
+        return packed;
+    }
+
+    /**
+     * Immutable column store for one load of the directory
+     */
+    private static class Snapshot {
+        private final long[] packedIds;        // sorted, one per packable slot
+        private final Map<String, Integer> overflow; // unpackable studentId -> slot
+        private final String[] unpackedIds;    // studentId for overflow slots only
+        private final long[] databaseIds;
+        private final long[] registeredAt;     // epoch seconds (UTC), Long.MIN_VALUE if unknown
+        private final boolean[] verified;
+        private final short[] programIndex;
+        private final String[] programs;
+        private final int[] stringOffsets;     // name i = [2i, 2i+1), email i = [2i+1, 2i+2)
+        private byte[] strings;                // set once by build(), before the snapshot is published
+
+        private Snapshot(int count, int packedCount, int programCount) {
+            this.packedIds = new long[packedCount];
+            this.overflow = new HashMap<>();
+            this.unpackedIds = new String[count];
+            this.databaseIds = new long[count];
+            this.registeredAt = new long[count];
+            this.verified = new boolean[count];
+            this.programIndex = new short[count];
+            this.programs = new String[programCount];
+            this.stringOffsets = new int[count * 2 + 1];
+        }
+
+        static Snapshot build(List<DirectoryView> students) {
+            // Packable IDs first (sorted by packed value), then overflow IDs
+            List<long[]> packable = new ArrayList<>(students.size()); // {packedId, listIndex}
+            List<Integer> unpackable = new ArrayList<>();
+            Map<String, Short> programIds = new HashMap<>();
+
+            for (int i = 0; i < students.size(); i++) {
+                DirectoryView student = students.get(i);
+                long packed = pack(student.getStudentId());
+                if (packed == NOT_PACKABLE) {
+                    unpackable.add(i);
+                } else {
+                    packable.add(new long[]{packed, i});
+                }
+                if (student.getProgram() != null) {
+                    programIds.computeIfAbsent(student.getProgram(), p -> (short) programIds.size());
+                }
+            }
+            packable.sort((a, b) -> Long.compare(a[0], b[0]));
+
+            Snapshot columns = new Snapshot(students.size(), packable.size(), programIds.size());
+            programIds.forEach((program, index) -> columns.programs[index] = program);
+
+            ByteArrayOutputStream stringBytes = new ByteArrayOutputStream(students.size() * 32);
+            int slot = 0;
+            for (long[] entry : packable) {
+                columns.packedIds[slot] = entry[0];
+                fill(columns, slot++, students.get((int) entry[1]), programIds, stringBytes);
+            }
+            for (int index : unpackable) {
+                DirectoryView student = students.get(index);
+                columns.unpackedIds[slot] = student.getStudentId();
+                columns.overflow.put(student.getStudentId(), slot);
+                fill(columns, slot++, student, programIds, stringBytes);
+            }
+            columns.stringOffsets[slot * 2] = stringBytes.size();
+
+            columns.strings = stringBytes.toByteArray();
+            return columns;
+        }
+
+        private static void fill(Snapshot columns, int slot, DirectoryView student,
+                                 Map<String, Short> programIds, ByteArrayOutputStream stringBytes) {
+            columns.databaseIds[slot] = student.getId();
+            columns.verified[slot] = Boolean.TRUE.equals(student.getVerified());
+            columns.programIndex[slot] = student.getProgram() == null ? -1 : programIds.get(student.getProgram());
+            columns.registeredAt[slot] = student.getRegistrationDate() == null
+                    ? Long.MIN_VALUE
+                    : student.getRegistrationDate().toEpochSecond(ZoneOffset.UTC);
+
+            columns.stringOffsets[slot * 2] = stringBytes.size();
+            if (student.getFullName() != null) {
+                stringBytes.writeBytes(student.getFullName().getBytes(StandardCharsets.UTF_8));
+            }
+            columns.stringOffsets[slot * 2 + 1] = stringBytes.size();
+            if (student.getEmail() != null) {
+                stringBytes.writeBytes(student.getEmail().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int size() {
+            return databaseIds.length;
+        }
+
+        int slotOf(String barcode) {
+            long packed = pack(barcode);
+            if (packed == NOT_PACKABLE) {
+                Integer slot = overflow.get(barcode);
+                return slot == null ? -1 : slot;
+            }
+            int slot = Arrays.binarySearch(packedIds, packed);
+            return slot >= 0 ? slot : -1;
+        }
+
+        Student toStudent(int slot) {
+            Student student = new Student(studentIdAt(slot), stringAt(slot * 2),
+                    programIndex[slot] < 0 ? null : programs[programIndex[slot]]);
+            student.setId(databaseIds[slot]);
+            student.setVerified(verified[slot]);
+            student.setEmail(stringAt(slot * 2 + 1));
+            student.setRegistrationDate(registeredAt[slot] == Long.MIN_VALUE
+                    ? null
+                    : LocalDateTime.ofEpochSecond(registeredAt[slot], 0, ZoneOffset.UTC));
+            return student;
+        }
+
+        private String studentIdAt(int slot) {
+            if (slot >= packedIds.length) {
+                return unpackedIds[slot];
+            }
+            long packed = packedIds[slot];
+            char[] chars = new char[MAX_PACKED_LENGTH];
+            int position = MAX_PACKED_LENGTH;
+            while (packed > 0) {
+                int digit = (int) (packed % 37);
+                chars[--position] = digit <= 10 ? (char) ('0' + digit - 1) : (char) ('A' + digit - 11);
+                packed /= 37;
+            }
+            return new String(chars, position, MAX_PACKED_LENGTH - position);
+        }
+
+        /**
+         * @return the stored string, or null if it was null (stored as zero bytes)
+         */
+        private String stringAt(int offsetIndex) {
+            int start = stringOffsets[offsetIndex];
+            int length = stringOffsets[offsetIndex + 1] - start;
+            return length == 0 ? null : new String(strings, start, length, StandardCharsets.UTF_8);
+        }
+
+        long columnBytes() {
+            return packedIds.length * 8L
+                    + databaseIds.length * (8L + 8L + 1L + 2L)
+                    + stringOffsets.length * 4L
+                    + strings.length;
+        }
+    }
+}
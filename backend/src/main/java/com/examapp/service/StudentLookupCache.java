@@ -0,0 +1,211 @@
+package com.examapp.service;
+
+import com.examapp.model.Student;
+import com.examapp.repository.StudentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StudentLookupCache - Bounded cache in front of StudentRepository.findByStudentId
+ *
+ * Students are READ-ONLY in this app (owned by the university system), so a
+ * cached student only goes stale when a sync/import runs - publish a
+ * StudentDataChangedEvent (or call invalidate()/invalidateAll()) afterwards.
+ *
+ * - LRU eviction once max-size entries are cached
+ * - Unknown barcodes are cached as "not found" for a short TTL, so a bad or
+ *   fake card scanned repeatedly does not hit the database every time
+ * - Hit/miss counters for monitoring
+ */
+@Component
+public class StudentLookupCache {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Value("${student.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${student.cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    private Map<String, CacheEntry> entries;
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Find student by student ID, using the cache when possible
+     * @param studentId - the student ID (barcode value)
+     * @return student if found, empty otherwise
+     */
+    public Optional<Student> findByStudentId(String studentId) {
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            CacheEntry entry = entries.get(studentId);
+            if (entry != null) {
+                if (entry.student != null) {
+                    hits.incrementAndGet();
+                    return Optional.of(entry.student);
+                }
+                if (entry.expiresAt > now) {
+                    negativeHits.incrementAndGet();
+                    return Optional.empty();
+                }
+                entries.remove(studentId);
+            }
+        }
+
+        // Load outside the lock so one slow query doesn't block other lookups
+        misses.incrementAndGet();
+        Optional<Student> loaded = studentRepository.findByStudentId(studentId);
+
+        CacheEntry entry = loaded
+                .map(student -> new CacheEntry(student, Long.MAX_VALUE))
+                .orElseGet(() -> new CacheEntry(null, now + negativeTtlSeconds * 1000));
+        synchronized (entries) {
+            entries.put(studentId, entry);
+        }
+        return loaded;
+    }
+
+    /**
+     * Batch read of the cache (no database access)
+     * @param studentIds - student IDs to look up
+     * @param found - receives every cached student
+     * @return IDs the cache knows nothing about (known-missing IDs are left out)
+     */
+    public Set<String> findCached(Collection<String> studentIds, Map<String, Student> found) {
+        long now = System.currentTimeMillis();
+        Set<String> unresolved = new LinkedHashSet<>();
+
+        synchronized (entries) {
+            for (String studentId : studentIds) {
+                CacheEntry entry = entries.get(studentId);
+                if (entry != null && entry.student != null) {
+                    hits.incrementAndGet();
+                    found.put(studentId, entry.student);
+                } else if (entry != null && entry.expiresAt > now) {
+                    negativeHits.incrementAndGet();
+                } else {
+                    misses.incrementAndGet();
+                    unresolved.add(studentId);
+                }
+            }
+        }
+        return unresolved;
+    }
+
+    /**
+     * Cache the result of a batch load
+     * @param loaded - students found, by student ID
+     * @param notFound - IDs the database has no student for
+     */
+    public void putAll(Map<String, Student> loaded, Collection<String> notFound) {
+        long negativeExpiry = System.currentTimeMillis() + negativeTtlSeconds * 1000;
+        synchronized (entries) {
+            loaded.forEach((studentId, student) -> entries.put(studentId, new CacheEntry(student, Long.MAX_VALUE)));
+            for (String studentId : notFound) {
+                entries.put(studentId, new CacheEntry(null, negativeExpiry));
+            }
+        }
+    }
+
+    /**
+     * Drop cached entries for specific students (after a sync/import changed them)
+     */
+    public void invalidate(Collection<String> studentIds) {
+        synchronized (entries) {
+            for (String studentId : studentIds) {
+                if (entries.remove(studentId) != null) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop every cached entry (after a full student sync/import)
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    @EventListener
+    public void onStudentDataChanged(StudentDataChangedEvent event) {
+        if (event.isFullRefresh()) {
+            invalidateAll();
+        } else {
+            invalidate(event.getStudentIds());
+        }
+    }
+
+    /**
+     * Cache statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.get() + negativeHits.get();
+        long total = hitCount + misses.get();
+
+        Map<String, Object> metrics = new HashMap<>();
+        synchronized (entries) {
+            metrics.put("size", entries.size());
+        }
+        metrics.put("maxSize", maxSize);
+        metrics.put("hits", hits.get());
+        metrics.put("negativeHits", negativeHits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("hitRatio", total > 0 ? (double) hitCount / total : 0.0);
+        metrics.put("evictions", evictions.get());
+        metrics.put("invalidations", invalidations.get());
+        metrics.put("negativeTtlSeconds", negativeTtlSeconds);
+        return metrics;
+    }
+
+    /**
+     * Cached lookup result (student == null means "not found" until expiresAt)
+     */
+    private static class CacheEntry {
+        private final Student student;
+        private final long expiresAt;
+
+        CacheEntry(Student student, long expiresAt) {
+            this.student = student;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
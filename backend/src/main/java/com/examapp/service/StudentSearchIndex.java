@@ -0,0 +1,522 @@
+package com.examapp.service;
+
+import com.examapp.model.Student;
+import com.examapp.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * StudentSearchIndex - In-memory trigram index over student names and IDs
+ *
+ * Replaces LIKE '%x%' table scans for the librarian search boxes.
+ *
+ * - Names and IDs are normalized (accents stripped, lowercase, anything that
+ *   is not a letter or digit becomes a space) and split into trigrams
+ * - Every trigram has a posting list of document numbers, kept in a flat
+ *   array indexed by the trigram code (37^3 slots, no hashing)
+ * - Queries of 3+ characters intersect the posting lists (smallest first) and
+ *   verify the survivors; shorter queries do a prefix scan of IDs and name words
+ * - Results are ranked (exact ID, ID prefix, name prefix, word prefix,
+ *   substring) and paginated; only the top page is kept while ranking
+ *
+ * Built at startup, rebuilt on a full StudentDataChangedEvent and updated in
+ * place for events that name specific students.
+ */
+@Component
+public class StudentSearchIndex {
+
+    private static final int ALPHABET = 37; // space, a-z, 0-9
+    private static final int TRIGRAMS = ALPHABET * ALPHABET * ALPHABET;
+    private static final int LOAD_PAGE_SIZE = 2000;
+    private static final int MIN_TRIGRAM_QUERY = 3;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Index index;
+
+    // Metrics
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private volatile long lastBuildMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onStudentDataChanged(StudentDataChangedEvent event) {
+        if (event.isFullRefresh() || index == null) {
+            rebuild();
+        } else {
+            update(event.getStudentIds());
+        }
+    }
+
+    /**
+     * Check if the index has been built (before that, callers use the database)
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Rebuild the whole index from the database and swap it in
+     */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Index built = new Index();
+
+        // Keyset-paged projections: no managed entities pile up while loading
+        long lastId = 0;
+        List<StudentRepository.IdCardView> page;
+        do {
+            page = studentRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (StudentRepository.IdCardView student : page) {
+                built.add(student.getId(), student.getStudentId(), student.getFullName(), student.getProgram());
+                lastId = student.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            index = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastBuildMillis = System.currentTimeMillis() - started;
+        System.out.println("✅ Student search index built: " + built.liveCount() + " students in " + lastBuildMillis + " ms");
+    }
+
+    /**
+     * Re-index specific students (changed, added or removed)
+     * @param studentIds - student IDs to refresh from the database
+     */
+    public synchronized void update(Collection<String> studentIds) {
+        List<Student> students = studentRepository.findByStudentIdIn(studentIds);
+
+        lock.writeLock().lock();
+        try {
+            for (String studentId : studentIds) {
+                index.remove(studentId);
+            }
+            for (Student student : students) {
+                index.add(student.getId(), student.getStudentId(), student.getFullName(), student.getProgram());
+            }
+            if (index.needsCompaction()) {
+                index = index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search over names and student IDs
+     * @param query - text typed by the user (any case, accents ignored)
+     * @param page - zero-based page number
+     * @param size - results per page
+     * @return total number of matches and the requested page of hits
+     */
+    public SearchResult search(String query, int page, int size) {
+        long started = System.nanoTime();
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return new SearchResult(0, new ArrayList<>());
+        }
+
+        // In long: a large page number must not wrap around (never more hits than students anyway)
+        int limit = (int) Math.min(((long) page + 1) * size, Integer.MAX_VALUE);
+        // Worst-ranked hit at the head, so the heap only ever holds the top "limit" hits
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, 1024) + 1, RANKING.reversed());
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            Index current = index;
+            String wordPrefix = " " + q;
+            if (q.length() < MIN_TRIGRAM_QUERY) {
+                // Too short for trigrams: prefix matches only (ID or any name word)
+                for (int doc = 0; doc < current.size; doc++) {
+                    if (!current.deleted[doc]) {
+                        int score = current.score(doc, q, wordPrefix);
+                        if (score >= Index.WORD_PREFIX) {
+                            total++;
+                            offer(top, current, doc, score, limit);
+                        }
+                    }
+                }
+            } else {
+                for (int doc : current.candidates(q)) {
+                    int score = current.score(doc, q, wordPrefix);
+                    if (score > 0) {
+                        total++;
+                        offer(top, current, doc, score, limit);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        int from = (int) Math.min((long) page * size, ranked.size());
+        List<Hit> hits = new ArrayList<>(ranked.subList(from, ranked.size()));
+
+        searches.increment();
+        searchNanos.add(System.nanoTime() - started);
+        return new SearchResult(total, hits);
+    }
+
+    /**
+     * Keep the doc if it ranks in the top "limit" (a Hit is only created when it does)
+     */
+    private static void offer(PriorityQueue<Hit> top, Index current, int doc, int score, int limit) {
+        if (top.size() < limit) {
+            top.add(current.hit(doc, score));
+        } else if (current.ranksBefore(doc, score, top.peek())) {
+            top.poll();
+            top.add(current.hit(doc, score));
+        }
+    }
+
+    /**
+     * Index statistics (for monitoring)
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Index current = index;
+            metrics.put("loaded", current != null);
+            if (current != null) {
+                metrics.put("students", current.liveCount());
+                metrics.put("deletedSlots", current.deletedCount);
+                metrics.put("postings", current.postingCount());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long count = searches.sum();
+        metrics.put("searches", count);
+        metrics.put("avgSearchMicros", count > 0 ? searchNanos.sum() / 1000.0 / count : 0.0);
+        metrics.put("lastBuildMillis", lastBuildMillis);
+        return metrics;
+    }
+
+    /**
+     * Lowercase, strip accents, map everything but [a-z0-9] to single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = Character.toLowerCase(decomposed.charAt(i));
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                out.append(c);
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ') {
+            out.setLength(length - 1);
+        }
+        return out.toString();
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + c - '0';
+        }
+        return 0;
+    }
+
+    private static int trigram(String text, int start) {
+        return (code(text.charAt(start)) * ALPHABET + code(text.charAt(start + 1))) * ALPHABET
+                + code(text.charAt(start + 2));
+    }
+
+    private static final Comparator<Hit> RANKING = Comparator
+            .comparingInt((Hit hit) -> -hit.score)
+            .thenComparing(hit -> hit.fullName, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(hit -> hit.studentId);
+
+    /**
+     * Index data: document columns plus one posting list per trigram
+     */
+    private static class Index {
+        static final int EXACT_ID = 100;
+        static final int ID_PREFIX = 90;
+        static final int EXACT_NAME = 80;
+        static final int NAME_PREFIX = 70;
+        static final int WORD_PREFIX = 60;
+        static final int NAME_SUBSTRING = 40;
+        static final int ID_SUBSTRING = 30;
+
+        private long[] databaseIds = new long[1024];
+        private String[] studentIds = new String[1024];
+        private String[] fullNames = new String[1024];
+        private String[] programs = new String[1024];
+        private String[] idKeys = new String[1024];
+        private String[] nameKeys = new String[1024];
+        private boolean[] deleted = new boolean[1024];
+        private int size;
+        private int deletedCount;
+        private final Map<String, Integer> docByStudentId = new HashMap<>();
+
+        private final int[][] postings = new int[TRIGRAMS][];
+        private final int[] postingSizes = new int[TRIGRAMS];
+
+        void add(long databaseId, String studentId, String fullName, String program) {
+            remove(studentId);
+            if (size == databaseIds.length) {
+                int capacity = size * 2;
+                databaseIds = Arrays.copyOf(databaseIds, capacity);
+                studentIds = Arrays.copyOf(studentIds, capacity);
+                fullNames = Arrays.copyOf(fullNames, capacity);
+                programs = Arrays.copyOf(programs, capacity);
+                idKeys = Arrays.copyOf(idKeys, capacity);
+                nameKeys = Arrays.copyOf(nameKeys, capacity);
+                deleted = Arrays.copyOf(deleted, capacity);
+            }
+            int doc = size++;
+            databaseIds[doc] = databaseId;
+            studentIds[doc] = studentId;
+            fullNames[doc] = fullName == null ? "" : fullName;
+            programs[doc] = program;
+            idKeys[doc] = normalize(studentId);
+            nameKeys[doc] = normalize(fullName);
+            docByStudentId.put(studentId, doc);
+
+            // Padded with spaces so word starts and ends get their own trigrams
+            post(doc, " " + nameKeys[doc] + " ");
+            post(doc, " " + idKeys[doc] + " ");
+        }
+
+        private void post(int doc, String text) {
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                int gram = trigram(text, i);
+                int[] list = postings[gram];
+                int count = postingSizes[gram];
+                // Docs are added in increasing order, so a repeat is always the last entry
+                if (count > 0 && list[count - 1] == doc) {
+                    continue;
+                }
+                if (list == null) {
+                    list = postings[gram] = new int[4];
+                } else if (count == list.length) {
+                    list = postings[gram] = Arrays.copyOf(list, count * 2);
+                }
+                list[count] = doc;
+                postingSizes[gram] = count + 1;
+            }
+        }
+
+        void remove(String studentId) {
+            Integer doc = docByStudentId.remove(studentId);
+            if (doc != null) {
+                // Posting entries stay behind; deleted docs are skipped until compaction
+                deleted[doc] = true;
+                deletedCount++;
+            }
+        }
+
+        boolean needsCompaction() {
+            return deletedCount > 1000 && deletedCount > size / 4;
+        }
+
+        Index compact() {
+            Index fresh = new Index();
+            for (int doc = 0; doc < size; doc++) {
+                if (!deleted[doc]) {
+                    fresh.add(databaseIds[doc], studentIds[doc], fullNames[doc], programs[doc]);
+                }
+            }
+            return fresh;
+        }
+
+        int liveCount() {
+            return size - deletedCount;
+        }
+
+        long postingCount() {
+            long total = 0;
+            for (int count : postingSizes) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Docs containing every trigram of the query (may include false positives)
+         */
+        int[] candidates(String q) {
+            int gramCount = q.length() - 2;
+            int[] grams = new int[gramCount];
+            for (int i = 0; i < gramCount; i++) {
+                grams[i] = trigram(q, i);
+                if (postingSizes[grams[i]] == 0) {
+                    return new int[0];
+                }
+            }
+
+            // Start from the rarest trigram
+            int rarest = 0;
+            for (int i = 1; i < gramCount; i++) {
+                if (postingSizes[grams[i]] < postingSizes[grams[rarest]]) {
+                    rarest = i;
+                }
+            }
+            int[] result = Arrays.copyOf(postings[grams[rarest]], postingSizes[grams[rarest]]);
+            int resultSize = result.length;
+
+            for (int i = 0; i < gramCount && resultSize > 0; i++) {
+                if (i == rarest) {
+                    continue;
+                }
+                int[] list = postings[grams[i]];
+                int listSize = postingSizes[grams[i]];
+                int kept = 0;
+                int j = 0;
+                for (int r = 0; r < resultSize; r++) {
+                    int doc = result[r];
+                    while (j < listSize && list[j] < doc) {
+                        j++;
+                    }
+                    if (j < listSize && list[j] == doc) {
+                        result[kept++] = doc;
+                    }
+                }
+                resultSize = kept;
+            }
+
+            int live = 0;
+            for (int r = 0; r < resultSize; r++) {
+                if (!deleted[result[r]]) {
+                    result[live++] = result[r];
+                }
+            }
+            return Arrays.copyOf(result, live);
+        }
+
+        /**
+         * Rank one doc against the query (0 = not a real match)
+         */
+        int score(int doc, String q, String wordPrefix) {
+            String idKey = idKeys[doc];
+            String nameKey = nameKeys[doc];
+            if (idKey.equals(q)) {
+                return EXACT_ID;
+            }
+            if (idKey.startsWith(q)) {
+                return ID_PREFIX;
+            }
+            if (nameKey.equals(q)) {
+                return EXACT_NAME;
+            }
+            if (nameKey.startsWith(q)) {
+                return NAME_PREFIX;
+            }
+            if (nameKey.contains(wordPrefix)) {
+                return WORD_PREFIX;
+            }
+            if (nameKey.contains(q)) {
+                return NAME_SUBSTRING;
+            }
+            if (idKey.contains(q)) {
+                return ID_SUBSTRING;
+            }
+            return 0;
+        }
+
+        /**
+         * Same order as RANKING, without building a Hit for the doc
+         */
+        boolean ranksBefore(int doc, int score, Hit other) {
+            if (score != other.score) {
+                return score > other.score;
+            }
+            int byName = String.CASE_INSENSITIVE_ORDER.compare(fullNames[doc], other.fullName);
+            if (byName != 0) {
+                return byName < 0;
+            }
+            return studentIds[doc].compareTo(other.studentId) < 0;
+        }
+
+        Hit hit(int doc, int score) {
+            return new Hit(databaseIds[doc], studentIds[doc], fullNames[doc], programs[doc], score);
+        }
+    }
+
+    /**
+     * One page of search results
+     */
+    public static class SearchResult {
+        private final int total;
+        private final List<Hit> hits;
+
+        SearchResult(int total, List<Hit> hits) {
+            this.total = total;
+            this.hits = hits;
+        }
+
+        public int getTotal() { return total; }
+        public List<Hit> getHits() { return hits; }
+    }
+
+    /**
+     * A matching student with its rank score
+     */
+    public static class Hit {
+        private final Long id;
+        private final String studentId;
+        private final String fullName;
+        private final String program;
+        private final int score;
+
+        Hit(Long id, String studentId, String fullName, String program, int score) {
+            this.id = id;
+            this.studentId = studentId;
+            this.fullName = fullName;
+            this.program = program;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public String getStudentId() { return studentId; }
+        public String getFullName() { return fullName; }
+        public String getProgram() { return program; }
+        public int getScore() { return score; }
+    }
+}
@@ -0,0 +1,196 @@
+package com.examapp.util;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * BarcodePngEncoder - Writes a ZXing BitMatrix straight to a 1-bit grayscale PNG.
+ * Skips BufferedImage and ImageIO entirely.
+ *
+ * - 1 bit per pixel (black = 0, white = 1), packed straight from the matrix rows
+ * - A row identical to the previous one (every row of a 1D barcode) uses
+ *   PNG filter "Up", so it becomes all zeros and deflates to almost nothing
+ * - Scanline/output buffers and the Deflater are reused per thread, so a
+ *   render allocates little more than the returned byte[]
+ */
+public final class BarcodePngEncoder {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte FILTER_NONE = 0;
+    private static final byte FILTER_UP = 2;
+
+    private static final ThreadLocal<EncoderState> STATE = ThreadLocal.withInitial(EncoderState::new);
+
+    private BarcodePngEncoder() {
+    }
+
+    /**
+     * Encode the matrix as PNG
+     * @param matrix - barcode modules (true = black)
+     * @return PNG file bytes
+     */
+    public static byte[] encode(BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+
+        EncoderState state = STATE.get();
+        state.prepare(rowBytes, (rowBytes + 1) * height);
+
+        // Raw image data: filter byte + packed row, per scanline
+        byte[] raw = state.raw;
+        byte[] previousRow = state.previousRow;
+        byte[] row = state.row;
+        int rawLength = 0;
+        for (int y = 0; y < height; y++) {
+            packRow(matrix, y, width, row);
+            if (y > 0 && Arrays.equals(row, 0, rowBytes, previousRow, 0, rowBytes)) {
+                raw[rawLength++] = FILTER_UP;
+                Arrays.fill(raw, rawLength, rawLength + rowBytes, (byte) 0);
+            } else {
+                raw[rawLength++] = FILTER_NONE;
+                System.arraycopy(row, 0, raw, rawLength, rowBytes);
+                System.arraycopy(row, 0, previousRow, 0, rowBytes);
+            }
+            rawLength += rowBytes;
+        }
+
+        // Output: signature, IHDR, IDAT, IEND
+        state.out.reset();
+        state.out.write(PNG_SIGNATURE, 0, PNG_SIGNATURE.length);
+
+        int ihdr = state.out.beginChunk("IHDR");
+        state.out.writeInt(width);
+        state.out.writeInt(height);
+        state.out.write(1);  // bit depth
+        state.out.write(0);  // color type: grayscale
+        state.out.write(0);  // compression: deflate
+        state.out.write(0);  // filter method: adaptive
+        state.out.write(0);  // interlace: none
+        state.out.endChunk(ihdr, state.crc);
+
+        int idat = state.out.beginChunk("IDAT");
+        Deflater deflater = state.deflater;
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLength);
+        deflater.finish();
+        while (!deflater.finished()) {
+            state.out.ensureCapacity(1024);
+            int written = deflater.deflate(state.out.buffer, state.out.length, state.out.buffer.length - state.out.length);
+            state.out.length += written;
+        }
+        state.out.endChunk(idat, state.crc);
+
+        int iend = state.out.beginChunk("IEND");
+        state.out.endChunk(iend, state.crc);
+
+        return Arrays.copyOf(state.out.buffer, state.out.length);
+    }
+
+    /**
+     * Pack one matrix row into bytes, MSB first (bit set = white pixel)
+     */
+    private static void packRow(BitMatrix matrix, int y, int width, byte[] row) {
+        int rowBytes = (width + 7) / 8;
+        for (int i = 0; i < rowBytes; i++) {
+            int packed = 0;
+            int xStart = i * 8;
+            for (int bit = 0; bit < 8; bit++) {
+                int x = xStart + bit;
+                // Padding bits past the image width are written as white
+                boolean white = x >= width || !matrix.get(x, y);
+                packed = (packed << 1) | (white ? 1 : 0);
+            }
+            row[i] = (byte) packed;
+        }
+    }
+
+    /**
+     * Per-thread reusable buffers
+     */
+    private static class EncoderState {
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final CRC32 crc = new CRC32();
+        private final ChunkBuffer out = new ChunkBuffer();
+        private byte[] raw = new byte[0];
+        private byte[] row = new byte[0];
+        private byte[] previousRow = new byte[0];
+
+        void prepare(int rowBytes, int rawSize) {
+            if (row.length < rowBytes) {
+                row = new byte[rowBytes];
+                previousRow = new byte[rowBytes];
+            }
+            if (raw.length < rawSize) {
+                raw = new byte[rawSize];
+            }
+        }
+    }
+
+    /**
+     * Growable output buffer that knows how to frame PNG chunks
+     */
+    private static class ChunkBuffer {
+        private byte[] buffer = new byte[4096];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buffer[length++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int count) {
+            ensureCapacity(count);
+            System.arraycopy(bytes, offset, buffer, length, count);
+            length += count;
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        /**
+         * Write the length placeholder and chunk type
+         * @return position of the chunk type (start of the CRC-covered bytes)
+         */
+        int beginChunk(String type) {
+            writeInt(0);
+            int typeStart = length;
+            for (int i = 0; i < 4; i++) {
+                write(type.charAt(i));
+            }
+            return typeStart;
+        }
+
+        /**
+         * Fill in the chunk length and append the CRC over type + data
+         */
+        void endChunk(int typeStart, CRC32 crc) {
+            int dataLength = length - typeStart - 4;
+            buffer[typeStart - 4] = (byte) (dataLength >>> 24);
+            buffer[typeStart - 3] = (byte) (dataLength >>> 16);
+            buffer[typeStart - 2] = (byte) (dataLength >>> 8);
+            buffer[typeStart - 1] = (byte) dataLength;
+
+            crc.reset();
+            crc.update(buffer, typeStart, length - typeStart);
+            writeInt((int) crc.getValue());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.examapp.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PdfSheetWriter - Minimal streaming PDF writer for full-page grayscale images.
+ *
+ * Each page is one 8-bit DeviceGray image (already Flate-compressed by the
+ * caller) stretched over the whole page. Pages are written to the stream as
+ * they are added; only the object offsets are kept until finish() writes
+ * the page tree, cross-reference table and trailer.
+ *
+ * Object layout: 1 = catalog, 2 = page tree (written last), then
+ * image + content + page per added page.
+ */
+public final class PdfSheetWriter {
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+
+    private final OutputStream out;
+    private final String mediaBox;
+    private final String pageWidth;
+    private final String pageHeight;
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private long position;
+
+    /**
+     * @param out - destination (not closed)
+     * @param pageWidthPt - page width in points (1/72 inch), e.g. 595.28 for A4
+     * @param pageHeightPt - page height in points, e.g. 841.89 for A4
+     */
+    public PdfSheetWriter(OutputStream out, double pageWidthPt, double pageHeightPt) throws IOException {
+        this.out = out;
+        this.pageWidth = format(pageWidthPt);
+        this.pageHeight = format(pageHeightPt);
+        this.mediaBox = "[0 0 " + pageWidth + " " + pageHeight + "]";
+
+        offsets.add(0L); // object 0 is the free-list head
+        offsets.add(0L); // catalog
+        offsets.add(0L); // page tree, written in finish()
+
+        // Header + binary marker comment so transfer tools treat the file as binary
+        write("%PDF-1.4\n");
+        writeBytes(new byte[]{'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'});
+
+        beginObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+    }
+
+    /**
+     * Append a page showing one grayscale image
+     * @param deflatedPixels - zlib-compressed 8-bit gray pixels, row by row, top row first
+     * @param width - image width in pixels
+     * @param height - image height in pixels
+     */
+    public void addGrayImagePage(byte[] deflatedPixels, int width, int height) throws IOException {
+        int image = beginObject(offsets.size());
+        write("<< /Type /XObject /Subtype /Image /Width " + width + " /Height " + height
+                + " /ColorSpace /DeviceGray /BitsPerComponent 8 /Filter /FlateDecode /Length "
+                + deflatedPixels.length + " >>\nstream\n");
+        writeBytes(deflatedPixels);
+        write("\nendstream\nendobj\n");
+
+        // Scale the unit image square up to the full page
+        byte[] content = ("q " + pageWidth + " 0 0 " + pageHeight + " 0 0 cm /Im0 Do Q\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        int contents = beginObject(offsets.size());
+        write("<< /Length " + content.length + " >>\nstream\n");
+        writeBytes(content);
+        write("endstream\nendobj\n");
+
+        int page = beginObject(offsets.size());
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox " + mediaBox
+                + " /Resources << /XObject << /Im0 " + image + " 0 R >> >> /Contents "
+                + contents + " 0 R >>\nendobj\n");
+        pageObjects.add(page);
+    }
+
+    public int getPageCount() {
+        return pageObjects.size();
+    }
+
+    /**
+     * Write the page tree, cross-reference table and trailer
+     */
+    public void finish() throws IOException {
+        beginObject(PAGES);
+        StringBuilder kids = new StringBuilder();
+        for (int page : pageObjects) {
+            kids.append(page).append(" 0 R ");
+        }
+        write("<< /Type /Pages /Kids [" + kids + "] /Count " + pageObjects.size() + " >>\nendobj\n");
+
+        long xref = position;
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(offsets.size()).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (int i = 1; i < offsets.size(); i++) {
+            table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets.get(i)));
+        }
+        table.append("trailer\n<< /Size ").append(offsets.size()).append(" /Root ").append(CATALOG)
+                .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        write(table.toString());
+        out.flush();
+    }
+
+    private int beginObject(int number) throws IOException {
+        if (number == offsets.size()) {
+            offsets.add(position);
+        } else {
+            offsets.set(number, position);
+        }
+        write(number + " 0 obj\n");
+        return number;
+    }
+
+    private void write(String text) throws IOException {
+        writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private static String format(double points) {
+        return String.format(Locale.ROOT, "%.2f", points);
+    }
+}
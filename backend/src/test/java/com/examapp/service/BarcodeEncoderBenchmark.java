@@ -0,0 +1,93 @@
+package com.examapp.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * BarcodeEncoderBenchmark - Direct 1-bit PNG encoder vs the old BufferedImage/ImageIO path
+ *
+ * Standalone (no Spring context, no database); not part of the application.
+ * Prints renders per second, output size and bytes allocated per render.
+ *
+ * Run from backend/:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *        com.examapp.service.BarcodeEncoderBenchmark [studentId] [iterations]
+ */
+public class BarcodeEncoderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String studentId = args.length > 0 ? args[0] : "BCS25165336";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        // renderPng and encodeMatrix use no injected fields
+        BarcodeService barcodeService = new BarcodeService();
+
+        // Warm-up both paths (JIT, ImageIO plugin registry)
+        for (int i = 0; i < Math.min(iterations, 200); i++) {
+            renderWithImageIO(barcodeService, studentId);
+            barcodeService.renderPng(studentId);
+        }
+
+        long started = System.nanoTime();
+        long allocatedBefore = currentThreadAllocatedBytes();
+        byte[] imageIoBytes = null;
+        for (int i = 0; i < iterations; i++) {
+            imageIoBytes = renderWithImageIO(barcodeService, studentId);
+        }
+        double imageIoPerSecond = report("imageIO", iterations, System.nanoTime() - started,
+                allocatedBefore, imageIoBytes.length);
+
+        started = System.nanoTime();
+        allocatedBefore = currentThreadAllocatedBytes();
+        byte[] directBytes = null;
+        for (int i = 0; i < iterations; i++) {
+            directBytes = barcodeService.renderPng(studentId);
+        }
+        double directPerSecond = report("direct1Bit", iterations, System.nanoTime() - started,
+                allocatedBefore, directBytes.length);
+
+        System.out.printf("speedup   %.2fx%n", directPerSecond / imageIoPerSecond);
+        System.out.printf("sizeRatio %.2fx%n", (double) imageIoBytes.length / directBytes.length);
+    }
+
+    /**
+     * Previous render path (BufferedImage + ImageIO, 24-bit) - reference only
+     */
+    private static byte[] renderWithImageIO(BarcodeService barcodeService, String studentId)
+            throws WriterException, IOException {
+        BufferedImage barcodeImage = MatrixToImageWriter.toBufferedImage(barcodeService.encodeMatrix(studentId));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(barcodeImage, "PNG", baos);
+        return baos.toByteArray();
+    }
+
+    private static double report(String name, int iterations, long elapsedNanos,
+                                 long allocatedBefore, int outputBytes) {
+        long allocatedAfter = currentThreadAllocatedBytes();
+        double perSecond = iterations * 1_000_000_000.0 / elapsedNanos;
+        System.out.printf("%-10s %8.1f ms  %8.0f renders/s  %6d bytes  %8d bytes allocated/render%n",
+                name, elapsedNanos / 1_000_000.0, perSecond, outputBytes,
+                allocatedBefore < 0 ? -1 : (allocatedAfter - allocatedBefore) / iterations);
+        return perSecond;
+    }
+
+    /**
+     * Bytes allocated so far by this thread (-1 if the JVM can't tell)
+     */
+    private static long currentThreadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.examapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BarcodeRenderBenchmark - Sequential vs parallel bulk barcode rendering throughput
+ *
+ * Renders the same sample on one thread (old bulk path) and on a pool sized
+ * like barcodeRenderExecutor (one thread per core), best of several rounds.
+ * In memory only (no cache, no disk, no database), so both paths measure the
+ * same work. Standalone; not part of the application.
+ *
+ * Run from backend/:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *        com.examapp.service.BarcodeRenderBenchmark [sampleSize] [rounds] [threads]
+ */
+public class BarcodeRenderBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sampleSize = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // renderPng uses no injected fields
+        BarcodeService barcodeService = new BarcodeService();
+        List<String> sample = new ArrayList<>(sampleSize);
+        for (int i = 0; i < sampleSize; i++) {
+            sample.add(String.format("BCS25%06d", i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // Warm-up (JIT)
+            renderSequential(barcodeService, sample);
+            renderParallel(barcodeService, sample, pool);
+
+            long bestSequential = Long.MAX_VALUE;
+            long bestParallel = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                bestSequential = Math.min(bestSequential, renderSequential(barcodeService, sample));
+                bestParallel = Math.min(bestParallel, renderParallel(barcodeService, sample, pool));
+            }
+
+            double sequentialPerSecond = sampleSize * 1_000_000_000.0 / bestSequential;
+            double parallelPerSecond = sampleSize * 1_000_000_000.0 / bestParallel;
+            System.out.printf("sample %d, best of %d rounds, %d threads%n", sampleSize, rounds, threads);
+            System.out.printf("sequential %8.1f ms  %8.0f barcodes/s%n", bestSequential / 1_000_000.0, sequentialPerSecond);
+            System.out.printf("parallel   %8.1f ms  %8.0f barcodes/s%n", bestParallel / 1_000_000.0, parallelPerSecond);
+            System.out.printf("speedup    %.2fx%n", parallelPerSecond / sequentialPerSecond);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long renderSequential(BarcodeService barcodeService, List<String> sample) throws Exception {
+        long started = System.nanoTime();
+        for (String studentId : sample) {
+            barcodeService.renderPng(studentId);
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static long renderParallel(BarcodeService barcodeService, List<String> sample,
+                                       ExecutorService pool) throws Exception {
+        long started = System.nanoTime();
+        CountDownLatch done = new CountDownLatch(sample.size());
+        AtomicInteger failures = new AtomicInteger();
+        for (String studentId : sample) {
+            pool.execute(() -> {
+                try {
+                    barcodeService.renderPng(studentId);
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (failures.get() > 0) {
+            throw new RuntimeException(failures.get() + " barcodes failed to render during benchmark");
+        }
+        return System.nanoTime() - started;
+    }
+}
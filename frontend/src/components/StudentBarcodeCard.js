@@ -23,8 +23,9 @@ function StudentBarcodeCard({ student }) {
             setLoading(true);
             const token = sessionStorage.getItem('token');
 
+            // SVG: small payload, rendered by the browser at screen/print resolution
             const response = await axios.get(
-                `${API_BASE}/barcode/${student.studentId}`,
+                `${API_BASE}/barcode/svg/${student.studentId}`,
                 {
                     headers: {
                         'Authorization': `Bearer ${token}`
@@ -34,7 +35,7 @@ function StudentBarcodeCard({ student }) {
             );
 
             // Create object URL from blob
-            const imageBlob = new Blob([response.data], { type: 'image/png' });
+            const imageBlob = new Blob([response.data], { type: 'image/svg+xml' });
             const imageUrl = URL.createObjectURL(imageBlob);
             setBarcodeUrl(imageUrl);
             setLoading(false);
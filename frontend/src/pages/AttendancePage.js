@@ -28,14 +28,18 @@ function AttendancePage() {
 
     // Listen for when connection is restored
     useEffect(() => {
-        const handleOnline = () => {
+        const handleOnline = async () => {
             if (offlineStorage.hasUnsyncedData()) {
                 setMessage('🔄 Back online! Syncing data...');
-                offlineStorage.syncWhenOnline();
-                setTimeout(() => {
-                    setMessage('✅ Data synced successfully!');
-                    fetchData(); // Refresh from server
-                }, 2000);
+                const { recorded, rejected, pending } = await offlineStorage.syncWhenOnline();
+                if (pending > 0) {
+                    setMessage(`⚠ Synced ${recorded} records - ${pending} still waiting (will retry)`);
+                } else {
+                    setMessage(rejected > 0
+                        ? `✅ Synced ${recorded} records (${rejected} already marked or invalid)`
+                        : `✅ Data synced successfully! (${recorded} records)`);
+                }
+                fetchData(); // Refresh from server
             }
         };
 
@@ -130,7 +134,7 @@ function AttendancePage() {
                     time: new Date().toLocaleTimeString()
                 }]);
             } else {
-                offlineStorage.saveAttendance(examId, student.id, 'PRESENT');
+                offlineStorage.saveAttendance(examId, student.id, 'PRESENT', 'SCAN');
                 setAttendance({ ...attendance, [student.id]: 'PRESENT' });
                 setMessage(`📦 ${student.fullName} - Saved offline`);
             }
@@ -1,7 +1,21 @@
 // src/pages/ReportsPage.js - View attendance and incident reports
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
-import { getExamById, getAttendanceSummary, getIncidentCount } from '../services/apiService';
+import { getExamById, getAttendanceSummary, getIncidentCount, subscribeToExamEvents } from '../services/apiService';
+
+const COUNT_FIELDS = { PRESENT: 'presentCount', ABSENT: 'absentCount', LATE: 'lateCount' };
+
+// Apply a live attendance change to the summary (counts and rate)
+const applyStatusChange = (summary, previousStatus, status) => {
+    if (!summary) return summary;
+    const next = { ...summary };
+    if (COUNT_FIELDS[previousStatus]) next[COUNT_FIELDS[previousStatus]] -= 1;
+    if (COUNT_FIELDS[status]) next[COUNT_FIELDS[status]] += 1;
+    next.attendancePercentage = next.totalStudents > 0
+        ? ((next.presentCount + next.lateCount) / next.totalStudents) * 100
+        : 0;
+    return next;
+};
 
 function ReportsPage() {
     const { examId } = useParams();
@@ -15,13 +29,24 @@ function ReportsPage() {
         fetchData();
     }, [examId]);
 
+    // Live updates instead of polling
+    useEffect(() => {
+        return subscribeToExamEvents(examId, {
+            'summary': (data) => setSummary(data),
+            'attendance-marked': (event) => setSummary((s) => applyStatusChange(s, null, event.status)),
+            'status-changed': (event) => setSummary((s) => applyStatusChange(s, event.previousStatus, event.status)),
+            'incident-reported': () => setIncidentCount((count) => count + 1),
+        });
+    }, [examId]);
+
     const fetchData = async () => {
         try {
             const examRes = await getExamById(examId);
             setExam(examRes.data);
 
+            // The live stream's summary (plus deltas) is newer - only fill in if it has not arrived
             const summaryRes = await getAttendanceSummary(examId);
-            setSummary(summaryRes.data);
+            setSummary((current) => current || summaryRes.data);
 
             const countRes = await getIncidentCount(examId);
             setIncidentCount(countRes.data);
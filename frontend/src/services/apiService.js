@@ -13,7 +13,9 @@ const getAuthHeaders = () => {
 async function handleJsonResponse(response) {
     if (!response.ok) {
         const text = await response.text().catch(() => null);
-        throw new Error(text || response.statusText || 'Request failed');
+        const error = new Error(text || response.statusText || 'Request failed');
+        error.status = response.status;
+        throw error;
     }
     const json = await response.json().catch(() => null);
     return { data: json };
@@ -88,11 +90,28 @@ const apiService = {
         return handleJsonResponse(response);
     },
 
+    // Sync attendance marked while offline: records = [{ examId, studentId, status, method, clientTimestamp }]
+    markAttendanceBatch: async (records) => {
+        const response = await fetch(`${API_BASE_URL}/attendance/batch`, {
+            method: 'POST',
+            headers: getAuthHeaders(),
+            body: JSON.stringify({ records }),
+        });
+        return handleJsonResponse(response);
+    },
+
     getAttendanceSummary: async (examId) => {
         const response = await fetch(`${API_BASE_URL}/attendance/exam/${examId}/summary`, { headers: getAuthHeaders() });
         return handleJsonResponse(response);
     },
 
+    // Summaries for several exams in one call: pass examIds, or nothing for today's exams
+    getAttendanceSummaries: async (examIds) => {
+        const query = examIds && examIds.length ? `?examIds=${examIds.join(',')}` : '';
+        const response = await fetch(`${API_BASE_URL}/attendance/summary${query}`, { headers: getAuthHeaders() });
+        return handleJsonResponse(response);
+    },
+
     // ==================== INCIDENT ENDPOINTS ====================
 
     reportIncident: async (incidentData) => {
@@ -109,6 +128,16 @@ const apiService = {
         return handleJsonResponse(response);
     },
 
+    // Live exam events (Server-Sent Events). handlers = { 'summary': fn, 'attendance-marked': fn, ... }
+    // Returns a function that closes the stream. EventSource reconnects by itself.
+    subscribeToExamEvents: (examId, handlers) => {
+        const source = new EventSource(`${API_BASE_URL}/attendance/exam/${examId}/events`);
+        Object.entries(handlers).forEach(([type, handler]) => {
+            source.addEventListener(type, (event) => handler(JSON.parse(event.data)));
+        });
+        return () => source.close();
+    },
+
     getIncidentCount: async (examId) => {
         const response = await fetch(`${API_BASE_URL}/incidents/exam/${examId}/count`, { headers: getAuthHeaders() });
         if (!response.ok) {
@@ -133,6 +162,16 @@ const apiService = {
 
     // ==================== BARCODE ENDPOINTS (For Librarian Dashboard) ====================
 
+    // Replay scans queued while offline: scans = [{ scannedBarcode, examId, clientTimestamp }]
+    validateBarcodeBatch: async (scans) => {
+        const response = await fetch(`${API_BASE_URL}/barcode/validate/batch`, {
+            method: 'POST',
+            headers: getAuthHeaders(),
+            body: JSON.stringify({ scans }),
+        });
+        return handleJsonResponse(response);
+    },
+
     downloadBarcode: async (studentId) => {
         const response = await fetch(`${API_BASE_URL}/barcode/download/${encodeURIComponent(studentId)}`, { headers: getAuthHeaders() });
         // Return raw blob (frontend code expects a Blob)
@@ -156,11 +195,15 @@ export const reportIncident = (incidentData) => apiService.reportIncident(incide
 export const getAttendanceForExam = (examId) => apiService.getAttendanceForExam(examId);
 // Mark attendance helper: accept parameters (examId, studentId, status, method) and forward as object
 export const markAttendance = (examId, studentId, status, method = 'MANUAL') => apiService.markAttendance({ examId, studentId, status, method });
+export const markAttendanceBatch = (records) => apiService.markAttendanceBatch(records);
 export const getAttendanceSummary = (examId) => apiService.getAttendanceSummary(examId);
+export const getAttendanceSummaries = (examIds) => apiService.getAttendanceSummaries(examIds);
 export const getIncidentCount = (examId) => apiService.getIncidentCount(examId);
+export const subscribeToExamEvents = (examId, handlers) => apiService.subscribeToExamEvents(examId, handlers);
 
 // Additional named exports used by librarian dashboard
 export const getAllStudents = () => apiService.getAllStudents();
 export const searchStudent = (studentId) => apiService.searchStudent(studentId);
 export const downloadBarcode = (studentId) => apiService.downloadBarcode(studentId);
+export const validateBarcodeBatch = (scans) => apiService.validateBarcodeBatch(scans);
 
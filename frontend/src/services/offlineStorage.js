@@ -1,8 +1,11 @@
+import { markAttendanceBatch, reportIncident } from './apiService';
+
 const OFFLINE_KEY = 'exam_offline_data';
+const SYNC_BATCH_SIZE = 500;
 
 export const offlineStorage = {
-    // Save attendance when offline
-    saveAttendance: (examId, studentId, status) => {
+    // Save attendance when offline (method: 'MANUAL' or 'SCAN', sent as recorded)
+    saveAttendance: (examId, studentId, status, method = 'MANUAL') => {
         const data = JSON.parse(localStorage.getItem(OFFLINE_KEY) || '{}');
 
         if (!data.attendance) {
@@ -20,6 +23,7 @@ export const offlineStorage = {
         const record = {
             studentId,
             status,
+            method,
             timestamp: Date.now(),
             synced: false
         };
@@ -72,21 +76,101 @@ export const offlineStorage = {
         console.log('✅ Offline data cleared');
     },
 
-    // Sync when back online (placeholder)
+    // Sync when back online: upload queued attendance in batches (one request per 500 records),
+    // then queued incidents one by one.
+    // Items the server answered for (recorded, duplicate or rejected) are removed; anything
+    // not sent because of a network/server error stays queued and is reported as pending.
     syncWhenOnline: async () => {
         const data = JSON.parse(localStorage.getItem(OFFLINE_KEY) || '{}');
 
-        if (Object.keys(data).length === 0) {
-            console.log('No offline data to sync');
-            return;
+        const records = [];
+        Object.entries(data.attendance || {}).forEach(([examId, entries]) => {
+            entries.forEach(entry => records.push({
+                examId: Number(examId),
+                studentId: entry.studentId,
+                status: entry.status,
+                method: entry.method || 'MANUAL',
+                clientTimestamp: entry.timestamp
+            }));
+        });
+
+        console.log('🔄 Syncing offline attendance...', records.length, 'records');
+        const synced = new Set();
+        let recorded = 0;
+        let rejected = 0;
+
+        try {
+            for (let i = 0; i < records.length; i += SYNC_BATCH_SIZE) {
+                const batch = records.slice(i, i + SYNC_BATCH_SIZE);
+                const { data: response } = await markAttendanceBatch(batch);
+                response.results.forEach(result => {
+                    const record = batch[result.index];
+                    synced.add(`${record.examId}:${record.studentId}`);
+                    if (result.outcome === 'RECORDED') {
+                        recorded++;
+                    } else {
+                        rejected++;
+                        console.warn('⚠ Not synced:', record, result.outcome);
+                    }
+                });
+            }
+        } catch (error) {
+            console.error('❌ Sync interrupted:', error.message);
+        }
+
+        // Incidents: no batch endpoint, one report each; stop at the first network/server error
+        const incidentKey = incident => `${incident.examId}:${incident.timestamp}`;
+        const incidentsSent = new Set();
+        for (const incident of data.incidents || []) {
+            try {
+                await reportIncident({
+                    examId: Number(incident.examId),
+                    studentId: incident.studentId || null,
+                    category: incident.category,
+                    severity: incident.severity,
+                    description: incident.description
+                });
+                incidentsSent.add(incidentKey(incident));
+                recorded++;
+            } catch (error) {
+                if (error.status >= 400 && error.status < 500) {
+                    // The server refused it - retrying will not help
+                    incidentsSent.add(incidentKey(incident));
+                    rejected++;
+                    console.warn('⚠ Incident not synced:', incident, error.message);
+                } else {
+                    console.error('❌ Incident sync interrupted:', error.message);
+                    break;
+                }
+            }
+        }
+
+        // Keep only what the server has not answered for
+        const latest = JSON.parse(localStorage.getItem(OFFLINE_KEY) || '{}');
+        if (latest.attendance) {
+            Object.keys(latest.attendance).forEach(examId => {
+                latest.attendance[examId] = latest.attendance[examId].filter(
+                    entry => !synced.has(`${Number(examId)}:${entry.studentId}`)
+                );
+                if (latest.attendance[examId].length === 0) {
+                    delete latest.attendance[examId];
+                }
+            });
+            if (Object.keys(latest.attendance).length === 0) {
+                delete latest.attendance;
+            }
+        }
+        if (latest.incidents) {
+            latest.incidents = latest.incidents.filter(incident => !incidentsSent.has(incidentKey(incident)));
+            if (latest.incidents.length === 0) {
+                delete latest.incidents;
+            }
         }
+        localStorage.setItem(OFFLINE_KEY, JSON.stringify(latest));
 
-        console.log('🔄 Syncing offline data...', data);
-        // TODO: Send to backend API
-        // For now, just clear after "syncing"
-        setTimeout(() => {
-            offlineStorage.clearSyncedData();
-            console.log('✅ Sync complete');
-        }, 2000);
+        const pending = Object.values(latest.attendance || {}).reduce((sum, entries) => sum + entries.length, 0)
+            + (latest.incidents || []).length;
+        console.log('✅ Sync complete:', recorded, 'recorded,', rejected, 'rejected,', pending, 'pending');
+        return { recorded, rejected, pending };
     }
-};
\ No newline at end of file
+};